@@ -0,0 +1,133 @@
+package com.calendarapp;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class AsyncStoreWriter implements AutoCloseable {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 250;
+
+    private final EventStore store;
+    private final long debounceMillis;
+    private final Consumer<IOException> errorHandler;
+    private final ScheduledExecutorService executor;
+    private final ExecutorService indexExecutor;
+    private long requestedVersion;
+    private long savedVersion;
+    private ScheduledFuture<?> pendingSave;
+
+    public AsyncStoreWriter(EventStore store, Consumer<IOException> errorHandler) {
+        this(store, DEFAULT_DEBOUNCE_MILLIS, errorHandler);
+    }
+
+    public AsyncStoreWriter(EventStore store, long debounceMillis, Consumer<IOException> errorHandler) {
+        this.store = store;
+        this.debounceMillis = debounceMillis;
+        this.errorHandler = errorHandler;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "store-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.indexExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "store-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.indexExecutor.execute(this::buildIndexes);
+        store.addChangeListener(new EventStore.ChangeListener() {
+            @Override
+            public void eventChanged(int eventId) {
+            }
+
+            @Override
+            public void storeReloaded() {
+                try {
+                    indexExecutor.execute(AsyncStoreWriter.this::buildIndexes);
+                } catch (RejectedExecutionException ex) {
+                    // closed; searches scan the events until the indexes exist
+                }
+            }
+        });
+    }
+
+    public synchronized void requestSave() {
+        requestedVersion++;
+        if (pendingSave == null) {
+            pendingSave = executor.schedule(this::saveInBackground, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized boolean isDirty() {
+        return requestedVersion != savedVersion;
+    }
+
+    public void flush() throws IOException {
+        try {
+            executor.submit(() -> {
+                saveIfDirty();
+                return null;
+            }).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the data files to be saved.", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Unable to save data files.", cause);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            store.saveIndexSnapshot();
+        } finally {
+            executor.shutdown();
+            indexExecutor.shutdown();
+        }
+    }
+
+    private void buildIndexes() {
+        store.buildTextIndexes();
+        try {
+            store.saveIndexSnapshot();
+        } catch (IOException ex) {
+            errorHandler.accept(ex);
+        }
+    }
+
+    private void saveInBackground() {
+        synchronized (this) {
+            pendingSave = null;
+        }
+        try {
+            saveIfDirty();
+        } catch (IOException ex) {
+            errorHandler.accept(ex);
+        }
+    }
+
+    private void saveIfDirty() throws IOException {
+        long version;
+        synchronized (this) {
+            version = requestedVersion;
+            if (version == savedVersion) {
+                return;
+            }
+        }
+        store.save();
+        synchronized (this) {
+            savedVersion = Math.max(savedVersion, version);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.calendarapp;
+
+import java.util.Arrays;
+
+public class BusyCalendar {
+    public static final int WORDS_PER_DAY = (EpochMinutes.MINUTES_PER_DAY + 63) / 64;
+
+    public static final int DEFAULT_MAX_CACHED_DAYS = 1024;
+
+    private final IntObjectMap<CachedDay> days = new IntObjectMap<>();
+    private final int maxCachedDays;
+    private CachedDay newest;
+    private CachedDay oldest;
+
+    public BusyCalendar() {
+        this(DEFAULT_MAX_CACHED_DAYS);
+    }
+
+    public BusyCalendar(int maxCachedDays) {
+        if (maxCachedDays <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        this.maxCachedDays = maxCachedDays;
+    }
+
+    public long[] cached(long epochDay) {
+        CachedDay day = days.get((int) epochDay);
+        if (day == null) {
+            return null;
+        }
+        if (day != newest) {
+            unlink(day);
+            linkNewest(day);
+        }
+        return day.bitmap;
+    }
+
+    public void cache(long epochDay, long[] bitmap) {
+        CachedDay previous = days.remove((int) epochDay);
+        if (previous != null) {
+            unlink(previous);
+        }
+        CachedDay day = new CachedDay((int) epochDay, bitmap);
+        days.put(day.epochDay, day);
+        linkNewest(day);
+        while (days.size() > maxCachedDays) {
+            CachedDay eldest = oldest;
+            unlink(eldest);
+            days.remove(eldest.epochDay);
+        }
+    }
+
+    public boolean hasCachedDays() {
+        return !days.isEmpty();
+    }
+
+    public int size() {
+        return days.size();
+    }
+
+    public int[] cachedDays() {
+        int[] result = days.keys();
+        Arrays.sort(result);
+        return result;
+    }
+
+    public void markBusy(long startMinute, long endMinute) {
+        if (endMinute <= startMinute) {
+            return;
+        }
+        long lastDay = EpochMinutes.epochDay(endMinute - 1);
+        for (long day = EpochMinutes.epochDay(startMinute); day <= lastDay; day++) {
+            CachedDay cachedDay = days.get((int) day);
+            if (cachedDay != null) {
+                paintDay(cachedDay.bitmap, day, startMinute, endMinute);
+            }
+        }
+    }
+
+    public void evict(long startMinute, long endMinute) {
+        long lastDay = EpochMinutes.epochDay(Math.max(startMinute, endMinute - 1));
+        for (long day = EpochMinutes.epochDay(startMinute); day <= lastDay; day++) {
+            CachedDay cachedDay = days.remove((int) day);
+            if (cachedDay != null) {
+                unlink(cachedDay);
+            }
+        }
+    }
+
+    public void clear() {
+        days.clear();
+        newest = null;
+        oldest = null;
+    }
+
+    private void linkNewest(CachedDay day) {
+        day.older = newest;
+        day.newer = null;
+        if (newest != null) {
+            newest.newer = day;
+        }
+        newest = day;
+        if (oldest == null) {
+            oldest = day;
+        }
+    }
+
+    private void unlink(CachedDay day) {
+        if (day.newer != null) {
+            day.newer.older = day.older;
+        } else {
+            newest = day.older;
+        }
+        if (day.older != null) {
+            day.older.newer = day.newer;
+        } else {
+            oldest = day.newer;
+        }
+        day.newer = null;
+        day.older = null;
+    }
+
+    public static void paint(long[][] bitmaps, long firstDay, long startMinute, long endMinute) {
+        if (endMinute <= startMinute) {
+            return;
+        }
+        long fromDay = Math.max(firstDay, EpochMinutes.epochDay(startMinute));
+        long toDay = Math.min(firstDay + bitmaps.length - 1, EpochMinutes.epochDay(endMinute - 1));
+        for (long day = fromDay; day <= toDay; day++) {
+            paintDay(bitmaps[(int) (day - firstDay)], day, startMinute, endMinute);
+        }
+    }
+
+    private static void paintDay(long[] bitmap, long day, long startMinute, long endMinute) {
+        long dayStart = day * EpochMinutes.MINUTES_PER_DAY;
+        int from = (int) Math.max(0, startMinute - dayStart);
+        int to = (int) Math.min(EpochMinutes.MINUTES_PER_DAY, endMinute - dayStart);
+        setRange(bitmap, from, to);
+    }
+
+    public static void setRange(long[] bitmap, int fromMinute, int toMinute) {
+        if (toMinute <= fromMinute) {
+            return;
+        }
+        int firstWord = fromMinute >>> 6;
+        int lastWord = (toMinute - 1) >>> 6;
+        for (int word = firstWord; word <= lastWord; word++) {
+            bitmap[word] |= wordMask(word, fromMinute, toMinute);
+        }
+    }
+
+    public static boolean intersects(long[] bitmap, int fromMinute, int toMinute) {
+        if (toMinute <= fromMinute) {
+            return false;
+        }
+        int firstWord = fromMinute >>> 6;
+        int lastWord = (toMinute - 1) >>> 6;
+        for (int word = firstWord; word <= lastWord; word++) {
+            if ((bitmap[word] & wordMask(word, fromMinute, toMinute)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static int countBusy(long[] bitmap, int fromMinute, int toMinute) {
+        if (toMinute <= fromMinute) {
+            return 0;
+        }
+        int firstWord = fromMinute >>> 6;
+        int lastWord = (toMinute - 1) >>> 6;
+        int count = 0;
+        for (int word = firstWord; word <= lastWord; word++) {
+            count += Long.bitCount(bitmap[word] & wordMask(word, fromMinute, toMinute));
+        }
+        return count;
+    }
+
+    private static long wordMask(int word, int fromMinute, int toMinute) {
+        int base = word << 6;
+        long mask = -1L;
+        if (fromMinute > base) {
+            mask &= -1L << (fromMinute - base);
+        }
+        if (toMinute < base + 64) {
+            mask &= -1L >>> (base + 64 - toMinute);
+        }
+        return mask;
+    }
+
+    private static final class CachedDay {
+        private final int epochDay;
+        private final long[] bitmap;
+        private CachedDay newer;
+        private CachedDay older;
+
+        private CachedDay(int epochDay, long[] bitmap) {
+            this.epochDay = epochDay;
+            this.bitmap = bitmap;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.calendarapp;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+public final class CalendarExporter {
+    private static final String CRLF = "\r\n";
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final String CSV_HEADER =
+            "eventId,title,description,start,end,recurrence,reminderMinutes,exceptionDates";
+
+    private CalendarExporter() {
+    }
+
+    public static int export(EventStore store, LocalDate startDate, LocalDate endDate, Format format,
+                             boolean expandOccurrences, Path file) throws IOException {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start and end dates are required.");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must be after start date.");
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return format == Format.ICS
+                    ? writeIcs(store, startDate, endDate, expandOccurrences, writer)
+                    : writeCsv(store, startDate, endDate, expandOccurrences, writer);
+        }
+    }
+
+    public static int writeIcs(EventStore store, LocalDate startDate, LocalDate endDate,
+                               boolean expandOccurrences, Writer writer) throws IOException {
+        String stamp = formatDateTime(LocalDateTime.now(ZoneOffset.UTC)) + "Z";
+        writer.write("BEGIN:VCALENDAR" + CRLF);
+        writer.write("VERSION:2.0" + CRLF);
+        writer.write("PRODID:-//CalendarPlanner//Export//EN" + CRLF);
+        writer.write("CALSCALE:GREGORIAN" + CRLF);
+        int[] count = {0};
+        EventStore.OccurrenceVisitor visitor = (occurrence, rule, reminderMinutes) -> {
+            Event event = occurrence.getEvent();
+            boolean series = !expandOccurrences && rule != null;
+            writer.write("BEGIN:VEVENT" + CRLF);
+            writeProperty(writer, "UID", expandOccurrences && rule != null
+                    ? event.getId() + "-" + occurrence.getStartMinute() + "@calendarplanner"
+                    : event.getId() + "@calendarplanner");
+            writeProperty(writer, "DTSTAMP", stamp);
+            writeProperty(writer, "DTSTART", formatDateTime(series ? event.getStart() : occurrence.getStart()));
+            writeProperty(writer, "DTEND", formatDateTime(series ? event.getEnd() : occurrence.getEnd()));
+            writeProperty(writer, "SUMMARY", escape(event.getTitle()));
+            if (event.getDescription() != null && !event.getDescription().isEmpty()) {
+                writeProperty(writer, "DESCRIPTION", escape(event.getDescription()));
+            }
+            if (series) {
+                writeProperty(writer, "RRULE", toRrule(rule, event));
+                if (rule.hasExceptions()) {
+                    writeProperty(writer, "EXDATE", formatExceptionDates(rule, event));
+                }
+            }
+            if (reminderMinutes != null) {
+                writer.write("BEGIN:VALARM" + CRLF);
+                writeProperty(writer, "ACTION", "DISPLAY");
+                writeProperty(writer, "DESCRIPTION", escape(event.getTitle()));
+                writeProperty(writer, "TRIGGER", "-PT" + reminderMinutes + "M");
+                writer.write("END:VALARM" + CRLF);
+            }
+            writer.write("END:VEVENT" + CRLF);
+            count[0]++;
+        };
+        if (expandOccurrences) {
+            store.forEachOccurrence(startDate, endDate, visitor);
+        } else {
+            store.forEachSeries(startDate, endDate, visitor);
+        }
+        writer.write("END:VCALENDAR" + CRLF);
+        writer.flush();
+        return count[0];
+    }
+
+    public static int writeCsv(EventStore store, LocalDate startDate, LocalDate endDate,
+                               boolean expandOccurrences, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write(System.lineSeparator());
+        int[] count = {0};
+        EventStore.OccurrenceVisitor visitor = (occurrence, rule, reminderMinutes) -> {
+            Event event = occurrence.getEvent();
+            boolean series = !expandOccurrences && rule != null;
+            writer.write(Integer.toString(event.getId()));
+            writer.write(',');
+            writer.write(CsvUtil.toCsvField(event.getTitle()));
+            writer.write(',');
+            writer.write(CsvUtil.toCsvField(event.getDescription()));
+            writer.write(',');
+            writer.write((series ? event.getStart() : occurrence.getStart()).toString());
+            writer.write(',');
+            writer.write((series ? event.getEnd() : occurrence.getEnd()).toString());
+            writer.write(',');
+            writer.write(series ? CsvUtil.toCsvField(toRrule(rule, event)) : "");
+            writer.write(',');
+            writer.write(reminderMinutes == null ? "" : reminderMinutes.toString());
+            writer.write(',');
+            writer.write(series && rule.hasExceptions() ? joinExceptionDates(rule) : "");
+            writer.write(System.lineSeparator());
+            count[0]++;
+        };
+        if (expandOccurrences) {
+            store.forEachOccurrence(startDate, endDate, visitor);
+        } else {
+            store.forEachSeries(startDate, endDate, visitor);
+        }
+        writer.flush();
+        return count[0];
+    }
+
+    static String toRrule(RecurrenceRule rule, Event event) {
+        StringBuilder value = new StringBuilder("FREQ=");
+        value.append(switch (rule.getUnit()) {
+            case DAY -> "DAILY";
+            case WEEK -> "WEEKLY";
+            case MONTH -> "MONTHLY";
+            case YEAR -> "YEARLY";
+        });
+        if (rule.getIntervalCount() > 1) {
+            value.append(";INTERVAL=").append(rule.getIntervalCount());
+        }
+        if (rule.hasPattern() && rule.getUnit() == RecurrenceUnit.YEAR) {
+            value.append(";BYMONTH=").append(event.getStart().getMonthValue());
+        }
+        if (rule.isLastDayOfMonth()) {
+            value.append(";BYMONTHDAY=-1");
+        } else if (!rule.getWeekdays().isEmpty()) {
+            value.append(";BYDAY=").append(rule.toPatternString().toUpperCase());
+        }
+        if (rule.getTimes() > 0) {
+            value.append(";COUNT=").append(rule.getTimes());
+        }
+        if (rule.getEndDate() != null) {
+            value.append(";UNTIL=").append(formatDate(rule.getEndDate())).append("T235959");
+        }
+        return value.toString();
+    }
+
+    private static String formatExceptionDates(RecurrenceRule rule, Event event) {
+        StringBuilder value = new StringBuilder();
+        for (LocalDate date : rule.getExceptionDates()) {
+            if (value.length() > 0) {
+                value.append(',');
+            }
+            value.append(formatDateTime(date.atTime(event.getStart().toLocalTime())));
+        }
+        return value.toString();
+    }
+
+    private static String joinExceptionDates(RecurrenceRule rule) {
+        StringBuilder value = new StringBuilder();
+        for (LocalDate date : rule.getExceptionDates()) {
+            if (value.length() > 0) {
+                value.append(';');
+            }
+            value.append(date);
+        }
+        return value.toString();
+    }
+
+    private static void writeProperty(Writer writer, String name, String value) throws IOException {
+        String line = name + ":" + value;
+        int segmentStart = 0;
+        int octets = 0;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int width = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + width > MAX_LINE_OCTETS) {
+                writer.write(line, segmentStart, i - segmentStart);
+                writer.write(CRLF + " ");
+                segmentStart = i;
+                octets = 1;
+            }
+            octets += width;
+            i += Character.charCount(codePoint);
+        }
+        writer.write(line, segmentStart, line.length() - segmentStart);
+        writer.write(CRLF);
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '\\', ';', ',' -> result.append('\\').append(ch);
+                case '\n' -> result.append("\\n");
+                case '\r' -> {
+                }
+                default -> result.append(ch);
+            }
+        }
+        return result.toString();
+    }
+
+    private static String formatDateTime(LocalDateTime value) {
+        StringBuilder result = new StringBuilder(15);
+        appendDigits(result, value.getYear(), 4);
+        appendDigits(result, value.getMonthValue(), 2);
+        appendDigits(result, value.getDayOfMonth(), 2);
+        result.append('T');
+        appendDigits(result, value.getHour(), 2);
+        appendDigits(result, value.getMinute(), 2);
+        appendDigits(result, value.getSecond(), 2);
+        return result.toString();
+    }
+
+    private static String formatDate(LocalDate value) {
+        StringBuilder result = new StringBuilder(8);
+        appendDigits(result, value.getYear(), 4);
+        appendDigits(result, value.getMonthValue(), 2);
+        appendDigits(result, value.getDayOfMonth(), 2);
+        return result.toString();
+    }
+
+    private static void appendDigits(StringBuilder target, int value, int width) {
+        String digits = Integer.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            target.append('0');
+        }
+        target.append(digits);
+    }
+
+    public enum Format {
+        ICS,
+        CSV
+    }
+}
@@ -0,0 +1,202 @@
+package com.calendarapp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+public class CalendarOverlay implements AutoCloseable {
+    private final List<EventStore> stores;
+    private final List<String> names;
+    private final boolean[] enabled;
+    private final StoreFanOut fanOut;
+
+    public CalendarOverlay(List<EventStore> stores) {
+        if (stores.isEmpty()) {
+            throw new IllegalArgumentException("At least one calendar is required.");
+        }
+        this.stores = new ArrayList<>(stores);
+        this.names = calendarNames(stores);
+        this.enabled = new boolean[stores.size()];
+        Arrays.fill(enabled, true);
+        this.fanOut = new StoreFanOut(stores.size(), "calendar-overlay", "calendars");
+    }
+
+    public static CalendarOverlay open(List<Path> dataDirectories) throws IOException {
+        List<EventStore> stores = new ArrayList<>();
+        for (Path directory : dataDirectories) {
+            stores.add(new EventStore(directory));
+        }
+        CalendarOverlay overlay = new CalendarOverlay(stores);
+        try {
+            overlay.fanOut.loadAll(stores);
+        } catch (IOException | RuntimeException ex) {
+            overlay.close();
+            throw ex;
+        }
+        return overlay;
+    }
+
+    public EventStore getPrimary() {
+        return stores.get(0);
+    }
+
+    public int size() {
+        return stores.size();
+    }
+
+    public String getName(int index) {
+        return names.get(index);
+    }
+
+    public EventStore getStore(int index) {
+        return stores.get(index);
+    }
+
+    public synchronized boolean isEnabled(int index) {
+        return enabled[index];
+    }
+
+    public synchronized void setEnabled(int index, boolean value) {
+        enabled[index] = value;
+    }
+
+    public DailyOccurrences occurrencesBetween(LocalDate startDate, LocalDate endDate) {
+        List<Integer> active = activeCalendars();
+        return DailyOccurrences.of(startDate, endDate, mergeInStartOrder(active,
+                query(active, store -> store.occurrencesBetween(startDate, endDate).all()), false,
+                Integer.MAX_VALUE));
+    }
+
+    public List<EventOccurrence> search(Query query) {
+        List<Integer> active = activeCalendars();
+        boolean latestFirst = query.getSort() == Query.Sort.LATEST_FIRST;
+        return mergeInStartOrder(active, query(active, store -> store.search(query)), latestFirst,
+                query.getLimit());
+    }
+
+    public List<EventOccurrence> upcoming(LocalDateTime from, int limit) {
+        List<Integer> active = activeCalendars();
+        return mergeInStartOrder(active, query(active, store -> store.upcoming(from, limit)), false, limit);
+    }
+
+    public List<String> suggestTitles(String prefix, int limit) {
+        List<List<String>> perCalendar = query(activeCalendars(), store -> store.suggestTitles(prefix, limit));
+        Set<String> merged = new LinkedHashSet<>();
+        for (int rank = 0; rank < limit && merged.size() < limit; rank++) {
+            for (List<String> titles : perCalendar) {
+                if (rank < titles.size() && merged.size() < limit) {
+                    merged.add(titles.get(rank));
+                }
+            }
+        }
+        return new ArrayList<>(merged);
+    }
+
+    private List<EventOccurrence> mergeInStartOrder(List<Integer> active, List<List<EventOccurrence>> perCalendar,
+                                                    boolean latestFirst, int limit) {
+        List<EventOccurrence> merged = new ArrayList<>();
+        PriorityQueue<int[]> heads = new PriorityQueue<>((left, right) -> {
+            EventOccurrence first = perCalendar.get(left[0]).get(left[1]);
+            EventOccurrence second = perCalendar.get(right[0]).get(right[1]);
+            int byStart = latestFirst
+                    ? Long.compare(second.getStartMinute(), first.getStartMinute())
+                    : Long.compare(first.getStartMinute(), second.getStartMinute());
+            return byStart != 0 ? byStart : Integer.compare(left[0], right[0]);
+        });
+        for (int i = 0; i < perCalendar.size(); i++) {
+            if (!perCalendar.get(i).isEmpty()) {
+                heads.add(new int[] {i, 0});
+            }
+        }
+        boolean tagged = stores.size() > 1;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<EventOccurrence> occurrences = perCalendar.get(head[0]);
+            EventOccurrence occurrence = occurrences.get(head[1]);
+            merged.add(tagged ? occurrence.withCalendar(names.get(active.get(head[0]))) : occurrence);
+            if (++head[1] < occurrences.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    public int eventCount() {
+        int count = 0;
+        for (int index : activeCalendars()) {
+            count += stores.get(index).listEvents().size();
+        }
+        return count;
+    }
+
+    public int recurrenceCount() {
+        int count = 0;
+        for (int index : activeCalendars()) {
+            count += stores.get(index).listRecurrences().size();
+        }
+        return count;
+    }
+
+    public int reminderCount() {
+        int count = 0;
+        for (int index : activeCalendars()) {
+            count += stores.get(index).reminderCount();
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+        fanOut.close();
+    }
+
+    private synchronized List<Integer> activeCalendars() {
+        List<Integer> active = new ArrayList<>();
+        for (int i = 0; i < enabled.length; i++) {
+            if (enabled[i]) {
+                active.add(i);
+            }
+        }
+        return active;
+    }
+
+    private <T> List<T> query(List<Integer> active, StoreFanOut.StoreQuery<T> query) {
+        List<EventStore> selected = new ArrayList<>(active.size());
+        for (int index : active) {
+            selected.add(stores.get(index));
+        }
+        try {
+            return fanOut.map(selected, query);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    private static List<String> calendarNames(List<EventStore> stores) {
+        List<String> leafNames = new ArrayList<>(stores.size());
+        Map<String, Integer> counts = new HashMap<>();
+        for (EventStore store : stores) {
+            Path fileName = store.getDataDirectory().toAbsolutePath().normalize().getFileName();
+            String name = fileName == null ? store.getDataDirectory().toString() : fileName.toString();
+            leafNames.add(name);
+            counts.merge(name, 1, Integer::sum);
+        }
+        List<String> names = new ArrayList<>(stores.size());
+        for (int i = 0; i < stores.size(); i++) {
+            String name = leafNames.get(i);
+            names.add(counts.get(name) > 1
+                    ? stores.get(i).getDataDirectory().toAbsolutePath().normalize().toString()
+                    : name);
+        }
+        return names;
+    }
+}
@@ -4,24 +4,36 @@ import javax.swing.BorderFactory;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
 import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.WindowConstants;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.DayOfWeek;
 import java.time.Duration;
@@ -30,10 +42,10 @@ import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
 
 public class CalendarPlannerGui {
     private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
@@ -43,10 +55,21 @@ public class CalendarPlannerGui {
     private static final DateTimeFormatter FLEX_DATE_TIME_SPACE_FORMAT = DateTimeFormatter.ofPattern("yyyy-M-d H:mm");
     private static final DateTimeFormatter FLEX_DATE_ONLY_FORMAT = DateTimeFormatter.ofPattern("yyyy-M-d");
     private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
-
+    private static final int EVENT_PAGE_SIZE = 200;
+    private static final int SUGGESTED_SLOT_COUNT = 5;
+    private static final int SLOT_SEARCH_DAYS = 30;
+    private static final int UP_NEXT_COUNT = 5;
+    private static final int TITLE_SUGGESTION_COUNT = 8;
+    private static final int TITLE_SUGGESTION_DELAY_MILLIS = 250;
+
+    private final CalendarOverlay calendars;
     private final EventStore store;
+    private final AsyncStoreWriter storeWriter;
+    private final ReminderScheduler reminderScheduler;
     private final DefaultTableModel tableModel;
     private final JTable eventTable;
+    private final JButton loadMoreButton = new JButton("Load more");
+    private EventKey nextEventKey;
 
     private final JTextField titleField = new JTextField(20);
     private final JTextField descriptionField = new JTextField(20);
@@ -54,9 +77,10 @@ public class CalendarPlannerGui {
     private final JTextField endField = new JTextField(20);
     private final JTextField reminderField = new JTextField(8);
     private final JCheckBox recurrenceCheck = new JCheckBox("Enable recurrence");
-    private final JTextField intervalField = new JTextField(6);
+    private final JTextField intervalField = new JTextField(10);
     private final JTextField timesField = new JTextField(4);
     private final JTextField recurrenceEndField = new JTextField(10);
+    private final JTextField exceptionDatesField = new JTextField(20);
 
     private final JComboBox<String> monthSelector = new JComboBox<>();
     private final JComboBox<Integer> yearSelector = new JComboBox<>();
@@ -66,6 +90,8 @@ public class CalendarPlannerGui {
     private final JTextField searchTitleField = new JTextField(12);
     private final JTextField searchDescriptionField = new JTextField(12);
     private final JCheckBox searchRecurringOnly = new JCheckBox("Only recurring");
+    private final JCheckBox searchRemindersOnly = new JCheckBox("Only with reminders");
+    private final JCheckBox searchLatestFirst = new JCheckBox("Latest first");
     private final DefaultTableModel searchTableModel = new DefaultTableModel(
             new Object[] {"Date", "Event ID", "Title", "Start", "End", "Recurring"}, 0
     ) {
@@ -78,12 +104,23 @@ public class CalendarPlannerGui {
     private final JTextArea statsArea = new JTextArea(12, 30);
 
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new CalendarPlannerGui().show());
+        List<Path> directories = new ArrayList<>();
+        for (String arg : args) {
+            directories.add(Paths.get(arg));
+        }
+        if (directories.isEmpty()) {
+            directories.add(Paths.get("data"));
+        }
+        SwingUtilities.invokeLater(() -> new CalendarPlannerGui(directories).show());
     }
 
-    public CalendarPlannerGui() {
-        store = new EventStore(Paths.get("data"));
-        loadStore();
+    public CalendarPlannerGui(List<Path> directories) {
+        calendars = openCalendars(directories);
+        store = calendars.getPrimary();
+        storeWriter = new AsyncStoreWriter(store,
+                ex -> SwingUtilities.invokeLater(() -> showError(ex.getMessage())));
+        reminderScheduler = new ReminderScheduler(store,
+                reminder -> SwingUtilities.invokeLater(() -> showReminderNotification(reminder)));
 
         tableModel = new DefaultTableModel(new Object[] {"ID", "Title", "Start", "End"}, 0) {
             @Override
@@ -98,7 +135,13 @@ public class CalendarPlannerGui {
 
     private void show() {
         JFrame frame = new JFrame("Calendar Planner");
-        frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        frame.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent event) {
+                closeApplication(frame);
+            }
+        });
         frame.setLayout(new BorderLayout());
 
         JTabbedPane tabs = new JTabbedPane();
@@ -108,11 +151,37 @@ public class CalendarPlannerGui {
         tabs.add("Statistics", buildStatisticsPanel());
 
         frame.add(tabs, BorderLayout.CENTER);
+        if (calendars.size() > 1) {
+            frame.add(buildCalendarToggles(), BorderLayout.NORTH);
+        }
         frame.pack();
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
         showWelcomeMessage();
-        showReminderNotification();
+        reminderScheduler.start();
+    }
+
+    private JPanel buildCalendarToggles() {
+        JPanel panel = new JPanel();
+        panel.add(new JLabel("Calendars:"));
+        for (int i = 0; i < calendars.size(); i++) {
+            int index = i;
+            JCheckBox toggle = new JCheckBox(calendars.getName(i), calendars.isEnabled(i));
+            toggle.addActionListener(event -> {
+                calendars.setEnabled(index, toggle.isSelected());
+                refreshOverlayViews();
+            });
+            panel.add(toggle);
+        }
+        return panel;
+    }
+
+    private void refreshOverlayViews() {
+        renderCalendar();
+        refreshStatistics();
+        if (!searchStartField.getText().trim().isEmpty() && !searchEndField.getText().trim().isEmpty()) {
+            runSearch();
+        }
     }
 
     private JPanel buildEventsPanel() {
@@ -124,6 +193,8 @@ public class CalendarPlannerGui {
         gbc.insets = new Insets(4, 4, 4, 4);
         gbc.anchor = GridBagConstraints.WEST;
 
+        installTitleSuggestions(titleField, store::suggestTitles);
+
         int row = 0;
         addField(form, gbc, row++, "Title", titleField);
         addField(form, gbc, row++, "Description", descriptionField);
@@ -137,29 +208,38 @@ public class CalendarPlannerGui {
         form.add(recurrenceCheck, gbc);
         gbc.gridwidth = 1;
 
-        addField(form, gbc, row++, "Interval (e.g. 1d, 1w)", intervalField);
+        addField(form, gbc, row++, "Interval (e.g. 1d, 1w:mo,fr, 1m:-1fr, 1y)", intervalField);
         addField(form, gbc, row++, "Repeat times (0 for end date)", timesField);
         addField(form, gbc, row++, "Recurrence end date", recurrenceEndField);
+        addField(form, gbc, row++, "Skip dates (yyyy-MM-dd, ...)", exceptionDatesField);
 
         JButton createButton = new JButton("Create");
         JButton updateButton = new JButton("Update");
         JButton deleteButton = new JButton("Delete");
         JButton clearButton = new JButton("Clear");
+        JButton suggestButton = new JButton("Suggest slot");
+        JButton importButton = new JButton("Import .ics");
 
         createButton.addActionListener(event -> createEvent());
         updateButton.addActionListener(event -> updateEvent());
         deleteButton.addActionListener(event -> deleteEvent());
         clearButton.addActionListener(event -> clearForm());
+        suggestButton.addActionListener(event -> suggestSlot());
+        importButton.addActionListener(event -> importIcs(importButton));
 
         JPanel buttonRow = new JPanel();
         buttonRow.add(createButton);
         buttonRow.add(updateButton);
         buttonRow.add(deleteButton);
         buttonRow.add(clearButton);
+        buttonRow.add(suggestButton);
+        buttonRow.add(importButton);
 
         JPanel tablePanel = new JPanel(new BorderLayout());
         tablePanel.setBorder(BorderFactory.createTitledBorder("Events"));
         tablePanel.add(new JScrollPane(eventTable), BorderLayout.CENTER);
+        loadMoreButton.addActionListener(event -> appendEventPage());
+        tablePanel.add(loadMoreButton, BorderLayout.SOUTH);
 
         eventTable.getSelectionModel().addListSelectionListener(event -> populateFormFromSelection());
 
@@ -169,6 +249,90 @@ public class CalendarPlannerGui {
         return panel;
     }
 
+    private void installTitleSuggestions(JTextField field, BiFunction<String, Integer, List<String>> source) {
+        JPopupMenu popup = new JPopupMenu();
+        popup.setFocusable(false);
+        boolean[] applying = {false};
+        Timer debounce = new Timer(TITLE_SUGGESTION_DELAY_MILLIS, event -> {
+            String prefix = field.getText();
+            if (prefix.isBlank() || !field.isFocusOwner()) {
+                popup.setVisible(false);
+                return;
+            }
+            new SwingWorker<List<String>, Void>() {
+                @Override
+                protected List<String> doInBackground() {
+                    return source.apply(prefix, TITLE_SUGGESTION_COUNT);
+                }
+
+                @Override
+                protected void done() {
+                    if (!prefix.equals(field.getText()) || !field.isFocusOwner()) {
+                        return;
+                    }
+                    try {
+                        showTitleSuggestions(field, popup, get(), applying);
+                    } catch (InterruptedException | ExecutionException ex) {
+                        popup.setVisible(false);
+                    }
+                }
+            }.execute();
+        });
+        debounce.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent event) {
+                restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent event) {
+                restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent event) {
+                restart();
+            }
+
+            private void restart() {
+                if (!applying[0]) {
+                    debounce.restart();
+                }
+            }
+        });
+        field.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent event) {
+                debounce.stop();
+                popup.setVisible(false);
+            }
+        });
+    }
+
+    private void showTitleSuggestions(JTextField field, JPopupMenu popup, List<String> titles, boolean[] applying) {
+        popup.removeAll();
+        for (String title : titles) {
+            if (title.equals(field.getText())) {
+                continue;
+            }
+            JMenuItem item = new JMenuItem(title);
+            item.addActionListener(event -> {
+                applying[0] = true;
+                field.setText(title);
+                applying[0] = false;
+                popup.setVisible(false);
+            });
+            popup.add(item);
+        }
+        if (popup.getComponentCount() == 0) {
+            popup.setVisible(false);
+            return;
+        }
+        popup.pack();
+        popup.show(field, 0, field.getHeight());
+    }
+
     private JPanel buildCalendarPanel() {
         JPanel panel = new JPanel(new BorderLayout(12, 12));
         panel.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
@@ -210,6 +374,8 @@ public class CalendarPlannerGui {
         gbc.insets = new Insets(4, 4, 4, 4);
         gbc.anchor = GridBagConstraints.WEST;
 
+        installTitleSuggestions(searchTitleField, calendars::suggestTitles);
+
         int row = 0;
         addField(filters, gbc, row++, "Start date (yyyy-MM-dd)", searchStartField);
         addField(filters, gbc, row++, "End date (yyyy-MM-dd)", searchEndField);
@@ -219,6 +385,10 @@ public class CalendarPlannerGui {
         gbc.gridy = row++;
         gbc.gridwidth = 2;
         filters.add(searchRecurringOnly, gbc);
+        gbc.gridy = row++;
+        filters.add(searchRemindersOnly, gbc);
+        gbc.gridy = row++;
+        filters.add(searchLatestFirst, gbc);
         gbc.gridwidth = 1;
 
         JButton searchButton = new JButton("Search");
@@ -226,9 +396,13 @@ public class CalendarPlannerGui {
         JButton clearButton = new JButton("Clear");
         clearButton.addActionListener(event -> clearSearchFilters());
 
+        JButton exportButton = new JButton("Export range");
+        exportButton.addActionListener(event -> exportRange(exportButton));
+
         JPanel buttons = new JPanel();
         buttons.add(searchButton);
         buttons.add(clearButton);
+        buttons.add(exportButton);
 
         JPanel tablePanel = new JPanel(new BorderLayout());
         tablePanel.setBorder(BorderFactory.createTitledBorder("Results"));
@@ -261,8 +435,8 @@ public class CalendarPlannerGui {
         YearMonth month = YearMonth.of(year, monthIndex);
         LocalDate start = month.atDay(1);
         LocalDate end = month.atEndOfMonth();
-        Map<LocalDate, List<EventOccurrence>> occurrences = store.occurrencesBetween(start, end);
-        java.util.Set<LocalDate> highlightedDates = buildHighlightedDates(start, end);
+        DailyOccurrences occurrences = calendars.occurrencesBetween(start, end);
+        boolean[] highlightedDays = buildHighlightedDays(occurrences);
 
         StringBuilder builder = new StringBuilder();
         builder.append(month.getMonth()).append(" ").append(month.getYear()).append("\n");
@@ -272,8 +446,7 @@ public class CalendarPlannerGui {
             builder.append("   ");
         }
         for (int day = 1; day <= month.lengthOfMonth(); day++) {
-            LocalDate current = month.atDay(day);
-            boolean hasEvent = highlightedDates.contains(current);
+            boolean hasEvent = highlightedDays[day - 1];
             String marker = hasEvent ? "*" : " ";
             builder.append(String.format("%2d%s", day, marker));
             if ((day + startOffset) % 7 == 0) {
@@ -283,14 +456,14 @@ public class CalendarPlannerGui {
             }
         }
         builder.append("\n\nEvents:\n");
-        for (Map.Entry<LocalDate, List<EventOccurrence>> entry : occurrences.entrySet()) {
-            for (EventOccurrence occurrence : entry.getValue()) {
+        for (int day = 0; day < occurrences.dayCount(); day++) {
+            for (EventOccurrence occurrence : occurrences.forDay(day)) {
                 LocalDate startDate = occurrence.getStart().toLocalDate();
                 LocalDate endDate = occurrence.getEnd().toLocalDate();
                 builder.append("* ")
-                        .append(entry.getKey())
+                        .append(occurrences.dateAt(day))
                         .append(": ")
-                        .append(occurrence.getTitle())
+                        .append(displayTitle(occurrence))
                         .append(" (")
                         .append(occurrence.getStart().format(TIME_FORMAT))
                         .append(" - ")
@@ -309,20 +482,14 @@ public class CalendarPlannerGui {
         calendarArea.setText(builder.toString());
     }
 
-    private java.util.Set<LocalDate> buildHighlightedDates(LocalDate monthStart, LocalDate monthEnd) {
-        java.util.Set<LocalDate> highlighted = new java.util.HashSet<>();
-        Map<LocalDate, List<EventOccurrence>> occurrences = store.occurrencesBetween(monthStart, monthEnd);
-        for (List<EventOccurrence> dayOccurrences : occurrences.values()) {
-            for (EventOccurrence occurrence : dayOccurrences) {
-                LocalDate eventStart = occurrence.getStart().toLocalDate();
-                LocalDate eventEnd = occurrence.getEnd().toLocalDate();
-                LocalDate cursor = eventStart;
-                while (!cursor.isAfter(eventEnd)) {
-                    if (!cursor.isBefore(monthStart) && !cursor.isAfter(monthEnd)) {
-                        highlighted.add(cursor);
-                    }
-                    cursor = cursor.plusDays(1);
-                }
+    private boolean[] buildHighlightedDays(DailyOccurrences occurrences) {
+        boolean[] highlighted = new boolean[occurrences.dayCount()];
+        long firstDay = occurrences.getStartDate().toEpochDay();
+        for (EventOccurrence occurrence : occurrences.all()) {
+            long lastDay = EpochMinutes.epochDay(occurrence.getEndMinute()) - firstDay;
+            for (long day = EpochMinutes.epochDay(occurrence.getStartMinute()) - firstDay;
+                 day <= lastDay && day < highlighted.length; day++) {
+                highlighted[(int) day] = true;
             }
         }
         return highlighted;
@@ -338,7 +505,8 @@ public class CalendarPlannerGui {
             RecurrenceRule candidateRule = buildRecurrenceRule(-1, recurrenceInput);
             Event candidate = new Event(-1, title, description, start, end);
             if (store.hasConflict(-1, candidate, candidateRule)) {
-                showError("This event conflicts with an existing event.");
+                showError("This event conflicts with an existing event."
+                        + describeSuggestedSlots(-1, start, end, candidateRule));
                 return;
             }
 
@@ -380,13 +548,11 @@ public class CalendarPlannerGui {
             RecurrenceRule candidateRule = buildRecurrenceRule(event.getId(), recurrenceInput);
             Event candidate = new Event(event.getId(), title, description, start, end);
             if (store.hasConflict(event.getId(), candidate, candidateRule)) {
-                showError("This update conflicts with an existing event.");
+                showError("This update conflicts with an existing event."
+                        + describeSuggestedSlots(event.getId(), start, end, candidateRule));
                 return;
             }
-            event.setTitle(title);
-            event.setDescription(description);
-            event.setStart(start);
-            event.setEnd(end);
+            store.updateEvent(event.getId(), title, description, start, end);
             if (recurrenceInput != null) {
                 store.setRecurrence(buildRecurrenceRule(event.getId(), recurrenceInput));
             } else {
@@ -402,6 +568,61 @@ public class CalendarPlannerGui {
         }
     }
 
+    private void suggestSlot() {
+        try {
+            LocalDateTime start = parseDateTimeInput(startField.getText().trim());
+            LocalDateTime end = parseDateTimeInput(endField.getText().trim());
+            int ignoreEventId = -1;
+            int row = eventTable.getSelectedRow();
+            if (row >= 0) {
+                ignoreEventId = (int) tableModel.getValueAt(row, 0);
+            }
+            RecurrenceRule rule = buildRecurrenceRule(ignoreEventId, readRecurrenceInput());
+            List<TimeSlot> slots = store.findFreeSlots(ignoreEventId, Duration.between(start, end), rule,
+                    start, start.plusDays(SLOT_SEARCH_DAYS), SUGGESTED_SLOT_COUNT);
+            if (slots.isEmpty()) {
+                showError("No free slot found in the next " + SLOT_SEARCH_DAYS + " days.");
+                return;
+            }
+            String[] choices = new String[slots.size()];
+            for (int i = 0; i < slots.size(); i++) {
+                choices[i] = formatSlot(slots.get(i));
+            }
+            Object choice = JOptionPane.showInputDialog(null, "Free slots:", "Calendar Planner",
+                    JOptionPane.QUESTION_MESSAGE, null, choices, choices[0]);
+            for (int i = 0; i < choices.length; i++) {
+                if (choices[i].equals(choice)) {
+                    startField.setText(slots.get(i).getStart().format(DATE_TIME_FORMAT));
+                    endField.setText(slots.get(i).getEnd().format(DATE_TIME_FORMAT));
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            showError(ex.getMessage());
+        }
+    }
+
+    private String describeSuggestedSlots(int ignoreEventId, LocalDateTime start, LocalDateTime end,
+                                          RecurrenceRule rule) {
+        Duration duration = Duration.between(start, end);
+        if (duration.toMinutes() <= 0) {
+            return "";
+        }
+        List<TimeSlot> slots = store.findFreeSlots(ignoreEventId, duration, rule,
+                start, start.plusDays(SLOT_SEARCH_DAYS), SUGGESTED_SLOT_COUNT);
+        if (slots.isEmpty()) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder("\n\nNext free slots:");
+        for (TimeSlot slot : slots) {
+            builder.append("\n  ").append(formatSlot(slot));
+        }
+        return builder.toString();
+    }
+
+    private String formatSlot(TimeSlot slot) {
+        return slot.getStart().format(DATE_TIME_FORMAT) + " - " + slot.getEnd().format(DATE_TIME_FORMAT);
+    }
+
     private void deleteEvent() {
         int row = eventTable.getSelectedRow();
         if (row < 0) {
@@ -416,6 +637,51 @@ public class CalendarPlannerGui {
         renderCalendar();
     }
 
+    private void importIcs(JButton importButton) {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(null) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        importButton.setEnabled(false);
+        new SwingWorker<IcsImporter.ImportReport, Void>() {
+            @Override
+            protected IcsImporter.ImportReport doInBackground() throws IOException {
+                return IcsImporter.importFile(file, store);
+            }
+
+            @Override
+            protected void done() {
+                importButton.setEnabled(true);
+                saveStore();
+                refreshTable();
+                refreshOverlayViews();
+                IcsImporter.ImportReport report;
+                try {
+                    report = get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException ex) {
+                    showError("Import failed: " + ex.getCause().getMessage());
+                    return;
+                }
+                StringBuilder message = new StringBuilder("Import completed.\n" + report);
+                for (MutationBatch.Conflict conflict : report.getConflicts()) {
+                    message.append("\n").append(conflict);
+                }
+                if (report.getConflictCount() > report.getConflicts().size()) {
+                    message.append("\n... and ").append(report.getConflictCount() - report.getConflicts().size())
+                            .append(" more");
+                }
+                JTextArea details = new JTextArea(message.toString(), 12, 60);
+                details.setEditable(false);
+                JOptionPane.showMessageDialog(null, new JScrollPane(details), "Calendar Planner",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
+        }.execute();
+    }
+
     private void populateFormFromSelection() {
         int row = eventTable.getSelectedRow();
         if (row < 0) {
@@ -445,13 +711,20 @@ public class CalendarPlannerGui {
         intervalField.setText("");
         timesField.setText("");
         recurrenceEndField.setText("");
+        exceptionDatesField.setText("");
         reminderField.setText("");
         eventTable.clearSelection();
     }
 
     private void refreshTable() {
         tableModel.setRowCount(0);
-        for (Event event : store.listEvents()) {
+        nextEventKey = null;
+        appendEventPage();
+    }
+
+    private void appendEventPage() {
+        Page<Event> page = store.pageEvents(nextEventKey, EVENT_PAGE_SIZE);
+        for (Event event : page.getItems()) {
             tableModel.addRow(new Object[] {
                     event.getId(),
                     event.getTitle(),
@@ -459,6 +732,8 @@ public class CalendarPlannerGui {
                     event.getEnd().format(DATE_TIME_FORMAT)
             });
         }
+        nextEventKey = page.getNextKey();
+        loadMoreButton.setEnabled(page.hasMore());
     }
 
     private void runSearch() {
@@ -473,50 +748,83 @@ public class CalendarPlannerGui {
             showError("End date must be after start date.");
             return;
         }
-        String titleKeyword = searchTitleField.getText().trim().toLowerCase();
-        String descriptionKeyword = searchDescriptionField.getText().trim().toLowerCase();
-        boolean recurringOnly = searchRecurringOnly.isSelected();
-
-        Map<LocalDate, List<EventOccurrence>> occurrences = store.occurrencesBetween(startDate, endDate);
-        List<EventOccurrence> flattened = new ArrayList<>();
-        for (List<EventOccurrence> dayOccurrences : occurrences.values()) {
-            flattened.addAll(dayOccurrences);
-        }
-        flattened.sort(Comparator.comparing(EventOccurrence::getStart));
-
-        for (EventOccurrence occurrence : flattened) {
-            Event event = store.findEvent(occurrence.getEventId()).orElse(null);
-            if (event == null) {
-                continue;
-            }
-            if (!titleKeyword.isEmpty() && !event.getTitle().toLowerCase().contains(titleKeyword)) {
-                continue;
-            }
-            if (!descriptionKeyword.isEmpty()
-                    && !event.getDescription().toLowerCase().contains(descriptionKeyword)) {
-                continue;
-            }
-            boolean recurring = store.findRecurrence(event.getId()).isPresent();
-            if (recurringOnly && !recurring) {
-                continue;
-            }
+        Query query = Query.between(startDate, endDate)
+                .withTitle(searchTitleField.getText())
+                .withDescription(searchDescriptionField.getText())
+                .withRecurringOnly(searchRecurringOnly.isSelected())
+                .withRemindersOnly(searchRemindersOnly.isSelected())
+                .withSort(searchLatestFirst.isSelected() ? Query.Sort.LATEST_FIRST : Query.Sort.EARLIEST_FIRST);
+        for (EventOccurrence occurrence : calendars.search(query)) {
             searchTableModel.addRow(new Object[] {
                     occurrence.getStart().toLocalDate(),
-                    event.getId(),
-                    event.getTitle(),
+                    occurrence.getEventId(),
+                    displayTitle(occurrence),
                     occurrence.getStart().format(DATE_TIME_FORMAT),
                     occurrence.getEnd().format(DATE_TIME_FORMAT),
-                    recurring ? "Yes" : "No"
+                    occurrence.isRecurring() ? "Yes" : "No"
             });
         }
     }
 
+    private void exportRange(JButton exportButton) {
+        LocalDate startDate = parseDateInput(searchStartField.getText().trim());
+        LocalDate endDate = parseDateInput(searchEndField.getText().trim());
+        if (startDate == null || endDate == null) {
+            showError("Enter both start and end dates to export.");
+            return;
+        }
+        if (endDate.isBefore(startDate)) {
+            showError("End date must be after start date.");
+            return;
+        }
+        int expandChoice = JOptionPane.showConfirmDialog(null,
+                "Expand recurring events into single occurrences?", "Calendar Planner",
+                JOptionPane.YES_NO_CANCEL_OPTION);
+        if (expandChoice != JOptionPane.YES_OPTION && expandChoice != JOptionPane.NO_OPTION) {
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(Paths.get("calendar.ics").toFile());
+        if (chooser.showSaveDialog(null) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        boolean expand = expandChoice == JOptionPane.YES_OPTION;
+        CalendarExporter.Format format = file.getFileName().toString().toLowerCase().endsWith(".csv")
+                ? CalendarExporter.Format.CSV
+                : CalendarExporter.Format.ICS;
+        exportButton.setEnabled(false);
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws IOException {
+                return CalendarExporter.export(store, startDate, endDate, format, expand, file);
+            }
+
+            @Override
+            protected void done() {
+                exportButton.setEnabled(true);
+                try {
+                    int written = get();
+                    JOptionPane.showMessageDialog(null,
+                            "Exported " + written + (expand ? " occurrences" : " events") + " to " + file + ".",
+                            "Calendar Planner", JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    showError("Export failed: " + ex.getCause().getMessage());
+                }
+            }
+        }.execute();
+    }
+
     private void clearSearchFilters() {
         searchStartField.setText("");
         searchEndField.setText("");
         searchTitleField.setText("");
         searchDescriptionField.setText("");
         searchRecurringOnly.setSelected(false);
+        searchRemindersOnly.setSelected(false);
+        searchLatestFirst.setSelected(false);
         searchTableModel.setRowCount(0);
     }
 
@@ -525,19 +833,39 @@ public class CalendarPlannerGui {
     }
 
     private void saveStore() {
+        storeWriter.requestSave();
+    }
+
+    private void closeApplication(JFrame frame) {
+        reminderScheduler.close();
         try {
-            store.save();
+            storeWriter.close();
         } catch (IOException ex) {
             showError(ex.getMessage());
         }
+        calendars.close();
+        frame.dispose();
+        System.exit(0);
     }
 
-    private void loadStore() {
+    private CalendarOverlay openCalendars(List<Path> directories) {
         try {
-            store.load();
+            return CalendarOverlay.open(directories);
         } catch (IOException ex) {
             showError(ex.getMessage());
         }
+        List<EventStore> stores = new ArrayList<>();
+        for (Path directory : directories) {
+            stores.add(new EventStore(directory));
+        }
+        return new CalendarOverlay(stores);
+    }
+
+    private String displayTitle(EventOccurrence occurrence) {
+        if (occurrence.getCalendar() == null) {
+            return occurrence.getTitle();
+        }
+        return "[" + occurrence.getCalendar() + "] " + occurrence.getTitle();
     }
 
     private void addField(JPanel panel, GridBagConstraints gbc, int row, String labelText, JTextField field) {
@@ -626,40 +954,14 @@ public class CalendarPlannerGui {
                 JOptionPane.INFORMATION_MESSAGE);
     }
 
-    private void showReminderNotification() {
-        LocalDateTime now = LocalDateTime.now();
-        EventOccurrence next = null;
-        int reminderMinutes = 0;
-        LocalDate rangeStart = now.toLocalDate();
-        LocalDate rangeEnd = rangeStart.plusDays(90);
-        for (Event event : store.listEvents()) {
-            RecurrenceRule rule = store.findRecurrence(event.getId()).orElse(null);
-            List<EventOccurrence> occurrences = EventTimeline.expandOccurrences(event, rule, rangeStart, rangeEnd);
-            for (EventOccurrence occurrence : occurrences) {
-                if (occurrence.getStart().isBefore(now)) {
-                    continue;
-                }
-                Optional<Integer> minutes = store.findReminderMinutes(occurrence.getEventId());
-                if (!minutes.isPresent()) {
-                    continue;
-                }
-                if (next == null || occurrence.getStart().isBefore(next.getStart())) {
-                    next = occurrence;
-                    reminderMinutes = minutes.get();
-                }
-            }
-        }
-        if (next == null) {
-            return;
-        }
-        Duration until = Duration.between(now, next.getStart());
-        if (until.toMinutes() <= reminderMinutes) {
-            JOptionPane.showMessageDialog(null,
-                    "Your next event is coming soon in " + formatDuration(until)
-                            + ": " + next.getTitle(),
-                    "Reminder",
-                    JOptionPane.INFORMATION_MESSAGE);
-        }
+    private void showReminderNotification(Reminder reminder) {
+        EventOccurrence next = reminder.getOccurrence();
+        Duration until = Duration.between(LocalDateTime.now(), next.getStart());
+        JOptionPane.showMessageDialog(null,
+                "Your next event is coming soon in " + formatDuration(until)
+                        + ": " + next.getTitle(),
+                "Reminder",
+                JOptionPane.INFORMATION_MESSAGE);
     }
 
     private String formatDuration(Duration duration) {
@@ -673,18 +975,13 @@ public class CalendarPlannerGui {
     }
 
     private String buildStatisticsText() {
-        List<Event> events = store.listEvents();
-        int totalEvents = events.size();
-        int totalRecurrences = store.listRecurrences().size();
-        int totalReminders = store.reminderCount();
+        int totalEvents = calendars.eventCount();
+        int totalRecurrences = calendars.recurrenceCount();
+        int totalReminders = calendars.reminderCount();
 
         LocalDate today = LocalDate.now();
         LocalDate rangeEnd = today.plusDays(30);
-        Map<LocalDate, List<EventOccurrence>> occurrences = store.occurrencesBetween(today, rangeEnd);
-        List<EventOccurrence> allOccurrences = new ArrayList<>();
-        for (List<EventOccurrence> dayOccurrences : occurrences.values()) {
-            allOccurrences.addAll(dayOccurrences);
-        }
+        List<EventOccurrence> allOccurrences = calendars.occurrencesBetween(today, rangeEnd).all();
 
         int upcomingCount = allOccurrences.size();
         long totalMinutes = 0;
@@ -696,7 +993,7 @@ public class CalendarPlannerGui {
             totalMinutes += duration;
             if (duration > longestMinutes) {
                 longestMinutes = duration;
-                longestTitle = occurrence.getTitle();
+                longestTitle = displayTitle(occurrence);
             }
             DayOfWeek day = occurrence.getStart().getDayOfWeek();
             dayCounts[day.getValue() % 7]++;
@@ -724,6 +1021,21 @@ public class CalendarPlannerGui {
         }
         builder.append("Longest event: ").append(longestTitle)
                 .append(" (").append(longestMinutes).append(" minutes)\n");
+        builder.append("\nUp next:\n");
+        List<EventOccurrence> upNext = calendars.upcoming(LocalDateTime.now(), UP_NEXT_COUNT);
+        if (upNext.isEmpty()) {
+            builder.append("  No upcoming events\n");
+        }
+        for (EventOccurrence occurrence : upNext) {
+            builder.append("  ").append(occurrence.getStart().format(DATE_TIME_FORMAT))
+                    .append(" ").append(displayTitle(occurrence)).append("\n");
+        }
+        LocalDate weekStart = today.minusDays(today.getDayOfWeek().getValue() - 1);
+        LocalDate monthStart = today.withDayOfMonth(1);
+        builder.append(String.format("Busy this week: %.1f%%\n",
+                store.busyPercentage(weekStart.atStartOfDay(), weekStart.plusWeeks(1).atStartOfDay())));
+        builder.append(String.format("Busy this month: %.1f%%\n",
+                store.busyPercentage(monthStart.atStartOfDay(), monthStart.plusMonths(1).atStartOfDay())));
         return builder.toString();
     }
 
@@ -759,14 +1071,17 @@ public class CalendarPlannerGui {
             }
             endDate = parsed.toString();
         }
-        return new RecurrenceInput(interval, times, endDate);
+        return new RecurrenceInput(interval, times, endDate, exceptionDatesField.getText().trim());
     }
 
     private RecurrenceRule buildRecurrenceRule(int eventId, RecurrenceInput input) {
         if (input == null) {
             return null;
         }
-        return RecurrenceRule.parse(eventId, input.interval, input.times, input.endDate);
+        RecurrenceRule rule = RecurrenceRule.parse(eventId, input.interval, input.times, input.endDate);
+        return input.exceptionDates.isEmpty()
+                ? rule
+                : rule.withExceptionDates(RecurrenceRule.parseExceptionDates(input.exceptionDates));
     }
 
     private void populateRecurrenceFields(int eventId) {
@@ -775,22 +1090,33 @@ public class CalendarPlannerGui {
             intervalField.setText("");
             timesField.setText("");
             recurrenceEndField.setText("");
+            exceptionDatesField.setText("");
             return;
         }
         intervalField.setText(rule.toIntervalString());
         timesField.setText(String.valueOf(rule.getTimes()));
         recurrenceEndField.setText(rule.getEndDate() == null ? "" : rule.getEndDate().toString());
+        StringBuilder exceptionDates = new StringBuilder();
+        for (LocalDate date : rule.getExceptionDates()) {
+            if (exceptionDates.length() > 0) {
+                exceptionDates.append(", ");
+            }
+            exceptionDates.append(date);
+        }
+        exceptionDatesField.setText(exceptionDates.toString());
     }
 
     private static class RecurrenceInput {
         private final String interval;
         private final int times;
         private final String endDate;
+        private final String exceptionDates;
 
-        private RecurrenceInput(String interval, int times, String endDate) {
+        private RecurrenceInput(String interval, int times, String endDate, String exceptionDates) {
             this.interval = interval;
             this.times = times;
             this.endDate = endDate;
+            this.exceptionDates = exceptionDates;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.calendarapp;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class DailyOccurrences {
+    private static final Comparator<EventOccurrence> START_ORDER =
+            Comparator.comparingLong(EventOccurrence::getStartMinute).thenComparingInt(EventOccurrence::getEventId);
+
+    private final LocalDate startDate;
+    private final long firstDay;
+    private final int[] dayOffsets;
+    private final EventOccurrence[] occurrences;
+
+    private DailyOccurrences(LocalDate startDate, int[] dayOffsets, EventOccurrence[] occurrences) {
+        this.startDate = startDate;
+        this.firstDay = startDate.toEpochDay();
+        this.dayOffsets = dayOffsets;
+        this.occurrences = occurrences;
+    }
+
+    public static DailyOccurrences of(LocalDate startDate, LocalDate endDate, List<EventOccurrence> unsorted) {
+        int dayCount = (int) Math.max(0, endDate.toEpochDay() - startDate.toEpochDay() + 1);
+        long firstDay = startDate.toEpochDay();
+        int[] dayOffsets = new int[dayCount + 1];
+        for (EventOccurrence occurrence : unsorted) {
+            dayOffsets[dayIndex(occurrence, firstDay) + 1]++;
+        }
+        for (int day = 0; day < dayCount; day++) {
+            dayOffsets[day + 1] += dayOffsets[day];
+        }
+        EventOccurrence[] sorted = new EventOccurrence[unsorted.size()];
+        int[] fill = Arrays.copyOf(dayOffsets, dayCount);
+        for (EventOccurrence occurrence : unsorted) {
+            sorted[fill[dayIndex(occurrence, firstDay)]++] = occurrence;
+        }
+        for (int day = 0; day < dayCount; day++) {
+            if (dayOffsets[day + 1] - dayOffsets[day] > 1) {
+                Arrays.sort(sorted, dayOffsets[day], dayOffsets[day + 1], START_ORDER);
+            }
+        }
+        return new DailyOccurrences(startDate, dayOffsets, sorted);
+    }
+
+    private static int dayIndex(EventOccurrence occurrence, long firstDay) {
+        return (int) (EpochMinutes.epochDay(occurrence.getStartMinute()) - firstDay);
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public int dayCount() {
+        return dayOffsets.length - 1;
+    }
+
+    public LocalDate dateAt(int dayIndex) {
+        return startDate.plusDays(dayIndex);
+    }
+
+    public int size() {
+        return occurrences.length;
+    }
+
+    public boolean isEmpty() {
+        return occurrences.length == 0;
+    }
+
+    public List<EventOccurrence> forDay(int dayIndex) {
+        if (dayIndex < 0 || dayIndex >= dayCount()) {
+            return Collections.emptyList();
+        }
+        return all().subList(dayOffsets[dayIndex], dayOffsets[dayIndex + 1]);
+    }
+
+    public List<EventOccurrence> get(LocalDate date) {
+        long index = date.toEpochDay() - firstDay;
+        return index < 0 || index >= dayCount() ? Collections.emptyList() : forDay((int) index);
+    }
+
+    public boolean hasOccurrences(LocalDate date) {
+        return !get(date).isEmpty();
+    }
+
+    public List<EventOccurrence> all() {
+        return Collections.unmodifiableList(Arrays.asList(occurrences));
+    }
+}
@@ -6,15 +6,19 @@ public class Event {
     private final int id;
     private String title;
     private String description;
-    private LocalDateTime start;
-    private LocalDateTime end;
+    private long startMinute;
+    private long endMinute;
 
     public Event(int id, String title, String description, LocalDateTime start, LocalDateTime end) {
+        this(id, title, description, EpochMinutes.of(start), EpochMinutes.of(end));
+    }
+
+    public Event(int id, String title, String description, long startMinute, long endMinute) {
         this.id = id;
         this.title = title;
         this.description = description;
-        this.start = start;
-        this.end = end;
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
     }
 
     public int getId() {
@@ -38,18 +42,26 @@ public class Event {
     }
 
     public LocalDateTime getStart() {
-        return start;
+        return EpochMinutes.toDateTime(startMinute);
     }
 
     public void setStart(LocalDateTime start) {
-        this.start = start;
+        this.startMinute = EpochMinutes.of(start);
     }
 
     public LocalDateTime getEnd() {
-        return end;
+        return EpochMinutes.toDateTime(endMinute);
     }
 
     public void setEnd(LocalDateTime end) {
-        this.end = end;
+        this.endMinute = EpochMinutes.of(end);
+    }
+
+    public long getStartMinute() {
+        return startMinute;
+    }
+
+    public long getEndMinute() {
+        return endMinute;
     }
-}
\ No newline at end of file
+}
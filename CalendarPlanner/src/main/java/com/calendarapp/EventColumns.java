@@ -0,0 +1,76 @@
+package com.calendarapp;
+
+import java.util.Arrays;
+
+public class EventColumns {
+    private int[] ids = new int[16];
+    private long[] startMinutes = new long[16];
+    private long[] endMinutes = new long[16];
+    private int[] titleCodes = new int[16];
+    private final IntIntMap rowById = new IntIntMap();
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public int rowOf(int id) {
+        return rowById.get(id, -1);
+    }
+
+    public int idAt(int row) {
+        return ids[row];
+    }
+
+    public long startAt(int row) {
+        return startMinutes[row];
+    }
+
+    public long endAt(int row) {
+        return endMinutes[row];
+    }
+
+    public int titleCodeAt(int row) {
+        return titleCodes[row];
+    }
+
+    public void put(int id, long startMinute, long endMinute, int titleCode) {
+        int row = rowById.get(id, -1);
+        if (row < 0) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                startMinutes = Arrays.copyOf(startMinutes, capacity);
+                endMinutes = Arrays.copyOf(endMinutes, capacity);
+                titleCodes = Arrays.copyOf(titleCodes, capacity);
+            }
+            row = size++;
+            ids[row] = id;
+            rowById.put(id, row);
+        }
+        startMinutes[row] = startMinute;
+        endMinutes[row] = endMinute;
+        titleCodes[row] = titleCode;
+    }
+
+    public void remove(int id) {
+        int row = rowById.get(id, -1);
+        if (row < 0) {
+            return;
+        }
+        rowById.remove(id);
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            startMinutes[row] = startMinutes[last];
+            endMinutes[row] = endMinutes[last];
+            titleCodes[row] = titleCodes[last];
+            rowById.put(ids[row], row);
+        }
+    }
+
+    public void clear() {
+        rowById.clear();
+        size = 0;
+    }
+}
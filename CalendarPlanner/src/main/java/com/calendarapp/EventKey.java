@@ -0,0 +1,54 @@
+package com.calendarapp;
+
+import java.time.LocalDateTime;
+
+public final class EventKey implements Comparable<EventKey> {
+    private final long startMinute;
+    private final int eventId;
+
+    public EventKey(long startMinute, int eventId) {
+        this.startMinute = startMinute;
+        this.eventId = eventId;
+    }
+
+    public static EventKey of(Event event) {
+        return new EventKey(event.getStartMinute(), event.getId());
+    }
+
+    public static EventKey before(LocalDateTime start) {
+        return new EventKey(EpochMinutes.of(start), Integer.MIN_VALUE);
+    }
+
+    public long getStartMinute() {
+        return startMinute;
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    @Override
+    public int compareTo(EventKey other) {
+        int byStart = Long.compare(startMinute, other.startMinute);
+        return byStart != 0 ? byStart : Integer.compare(eventId, other.eventId);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof EventKey)) {
+            return false;
+        }
+        EventKey key = (EventKey) other;
+        return startMinute == key.startMinute && eventId == key.eventId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(startMinute) * 31 + eventId;
+    }
+
+    @Override
+    public String toString() {
+        return EpochMinutes.toDateTime(startMinute) + "#" + eventId;
+    }
+}
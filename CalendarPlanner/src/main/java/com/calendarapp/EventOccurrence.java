@@ -3,39 +3,75 @@ package com.calendarapp;
 import java.time.LocalDateTime;
 
 public class EventOccurrence {
-    private final int eventId;
-    private final String title;
-    private final LocalDateTime start;
-    private final LocalDateTime end;
+    private final Event event;
+    private final long offsetMinutes;
+    private final boolean recurring;
+    private final String calendar;
 
-    public EventOccurrence(int eventId, String title, LocalDateTime start, LocalDateTime end) {
-        this.eventId = eventId;
-        this.title = title;
-        this.start = start;
-        this.end = end;
+    public EventOccurrence(Event event, long offsetMinutes, boolean recurring) {
+        this(event, offsetMinutes, recurring, null);
+    }
+
+    public EventOccurrence(Event event, long offsetMinutes, boolean recurring, String calendar) {
+        this.event = event;
+        this.offsetMinutes = offsetMinutes;
+        this.recurring = recurring;
+        this.calendar = calendar;
+    }
+
+    public EventOccurrence withCalendar(String calendar) {
+        return new EventOccurrence(event, offsetMinutes, recurring, calendar);
+    }
+
+    public Event getEvent() {
+        return event;
     }
 
     public int getEventId() {
-        return eventId;
+        return event.getId();
     }
 
     public String getTitle() {
-        return title;
+        return event.getTitle();
     }
 
     public String gettitle() {
-        return title;
+        return getTitle();
+    }
+
+    public String getDescription() {
+        return event.getDescription();
+    }
+
+    public boolean isRecurring() {
+        return recurring;
+    }
+
+    public String getCalendar() {
+        return calendar;
+    }
+
+    public long getOffsetMinutes() {
+        return offsetMinutes;
     }
 
     public LocalDateTime getStart() {
-        return start;
+        return EpochMinutes.toDateTime(getStartMinute());
     }
 
     public LocalDateTime getstart() {
-        return start;
+        return getStart();
     }
 
     public LocalDateTime getEnd() {
-        return end;
+        return EpochMinutes.toDateTime(getEndMinute());
+    }
+
+    public long getStartMinute() {
+        return event.getStartMinute() + offsetMinutes;
+    }
+
+    public long getEndMinute() {
+        return event.getEndMinute() + offsetMinutes;
     }
-}
\ No newline at end of file
+}
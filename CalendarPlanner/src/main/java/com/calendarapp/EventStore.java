@@ -1,45 +1,107 @@
 package com.calendarapp;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 import java.time.temporal.ChronoUnit;
 
 public class EventStore {
+    private static final int VISIT_CHUNK_SIZE = 1000;
+
     private final Path dataDirectory;
     private final Path eventFile;
     private final Path recurrenceFile;
     private final Path reminderFile;
-    private final Map<Integer, Event> events = new HashMap<>();
-    private final Map<Integer, RecurrenceRule> recurrences = new HashMap<>();
-    private final Map<Integer, Integer> reminders = new HashMap<>();
+    private final Path exceptionFile;
+    private final Path indexFile;
+    private final IntObjectMap<Event> events = new IntObjectMap<>();
+    private final IntObjectMap<RecurrenceRule> recurrences = new IntObjectMap<>();
+    private final IntIntMap reminders = new IntIntMap();
+    private final EventColumns columns = new EventColumns();
+    private final StringDictionary dictionary = new StringDictionary();
+    private final BusyCalendar busyCalendar = new BusyCalendar();
+    private final Object saveLock = new Object();
+    private final Object snapshotLock = new Object();
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
     private int nextId = 1;
+    private NavigableMap<EventKey, Event> startIndex;
+    private SyncHashes syncHashes;
+    private TextIndexes textIndexes;
+    private IntSet pendingTextIds;
+    private IntObjectMap<Event> pendingTextBaseline;
+    private long modificationCount;
+    private long changeCount;
+    private long savedModificationCount;
+    private long savedEventLength = -1;
+    private long savedEventChecksum;
+    private boolean snapshotCurrent;
 
     public EventStore(Path dataDirectory) {
         this.dataDirectory = dataDirectory;
         this.eventFile = dataDirectory.resolve("event.csv");
         this.recurrenceFile = dataDirectory.resolve("recurrent.csv");
         this.reminderFile = dataDirectory.resolve("reminder.csv");
+        this.exceptionFile = dataDirectory.resolve("exdate.csv");
+        this.indexFile = dataDirectory.resolve(IndexSnapshot.FILE_NAME);
+    }
+
+    public Path getDataDirectory() {
+        return dataDirectory;
     }
 
-    public void load() throws IOException {
+    public synchronized void load() throws IOException {
         Files.createDirectories(dataDirectory);
         events.clear();
         recurrences.clear();
         reminders.clear();
+        columns.clear();
+        dictionary.clear();
+        busyCalendar.clear();
+        startIndex = null;
+        syncHashes = null;
+        textIndexes = null;
+        pendingTextIds = null;
+        pendingTextBaseline = null;
         nextId = 1;
+        markModified();
 
+        long eventLength = -1;
+        long eventChecksum = 0;
         if (Files.exists(eventFile)) {
-            List<String> lines = Files.readAllLines(eventFile);
+            byte[] content = Files.readAllBytes(eventFile);
+            CRC32 checksum = new CRC32();
+            checksum.update(content);
+            eventLength = content.length;
+            eventChecksum = checksum.getValue();
+            List<String> lines = readLines(content);
             for (int i = 1; i < lines.size(); i++) {
                 List<String> fields = CsvUtil.parseLine(lines.get(i));
                 if (fields.size() < 5) {
@@ -54,6 +116,7 @@ public class EventStore {
                         LocalDateTime.parse(fields.get(4))
                 );
                 events.put(id, event);
+                indexEvent(event);
                 nextId = Math.max(nextId, id + 1);
             }
         }
@@ -69,6 +132,7 @@ public class EventStore {
                 RecurrenceRule rule = RecurrenceRule.parse(
                         eventId,
                         fields.get(1),
+                        fields.size() > 4 ? fields.get(4) : "",
                         Integer.parseInt(fields.get(2)),
                         fields.get(3)
                 );
@@ -76,6 +140,34 @@ public class EventStore {
             }
         }
 
+        if (Files.exists(exceptionFile)) {
+            IntObjectMap<long[]> exceptionDays = new IntObjectMap<>();
+            IntIntMap exceptionCounts = new IntIntMap();
+            List<String> lines = Files.readAllLines(exceptionFile);
+            for (int i = 1; i < lines.size(); i++) {
+                List<String> fields = CsvUtil.parseLine(lines.get(i));
+                if (fields.size() < 2) {
+                    continue;
+                }
+                int eventId = Integer.parseInt(fields.get(0));
+                if (!recurrences.containsKey(eventId)) {
+                    continue;
+                }
+                long[] days = exceptionDays.get(eventId);
+                int count = exceptionCounts.get(eventId, 0);
+                if (days == null || count == days.length) {
+                    days = days == null ? new long[4] : Arrays.copyOf(days, count * 2);
+                    exceptionDays.put(eventId, days);
+                }
+                days[count] = LocalDate.parse(fields.get(1).trim()).toEpochDay();
+                exceptionCounts.put(eventId, count + 1);
+            }
+            for (int eventId : exceptionDays.keys()) {
+                recurrences.put(eventId, recurrences.get(eventId).withExceptionDays(
+                        Arrays.copyOf(exceptionDays.get(eventId), exceptionCounts.get(eventId, 0))));
+            }
+        }
+
         if (Files.exists(reminderFile)) {
             List<String> lines = Files.readAllLines(reminderFile);
             for (int i = 1; i < lines.size(); i++) {
@@ -88,116 +180,723 @@ public class EventStore {
                 reminders.put(eventId, minutes);
             }
         }
+
+        savedModificationCount = modificationCount;
+        savedEventLength = eventLength;
+        savedEventChecksum = eventChecksum;
+        TextIndexes restored = new TextIndexes();
+        snapshotCurrent = IndexSnapshot.read(indexFile, eventLength, eventChecksum,
+                restored.titles, restored.descriptions, restored.prefixes);
+        if (snapshotCurrent) {
+            textIndexes = restored;
+        }
+        changeCount++;
+        for (ChangeListener listener : changeListeners) {
+            listener.storeReloaded();
+        }
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
     }
 
-    public Event createEvent(String title, String description, LocalDateTime start, LocalDateTime end) {
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    public synchronized Event createEvent(String title, String description, LocalDateTime start, LocalDateTime end) {
         Event event = new Event(nextId++, title, description, start, end);
         events.put(event.getId(), event);
+        indexEvent(event);
+        updateBusyDays(event, null, false);
+        markModified();
+        fireEventChanged(event.getId());
         return event;
     }
 
-    public Optional<Event> findEvent(int id) {
+    public synchronized void updateEvent(int id, String title, String description,
+                                         LocalDateTime start, LocalDateTime end) {
+        Event event = events.get(id);
+        if (event == null) {
+            throw new IllegalArgumentException("Event not found: " + id);
+        }
+        RecurrenceRule rule = recurrences.get(id);
+        updateBusyDays(event, rule, true);
+        unindexText(event);
+        event.setTitle(title);
+        event.setDescription(description);
+        event.setStart(start);
+        event.setEnd(end);
+        indexEvent(event);
+        updateBusyDays(event, rule, false);
+        markModified();
+        fireEventChanged(id);
+    }
+
+    public synchronized void putEvent(Event event, RecurrenceRule rule, Integer reminderMinutes) {
+        Event previous = events.get(event.getId());
+        if (previous != null) {
+            updateBusyDays(previous, recurrences.get(event.getId()), true);
+            unindexText(previous);
+        }
+        events.put(event.getId(), event);
+        indexEvent(event);
+        nextId = Math.max(nextId, event.getId() + 1);
+        if (rule == null) {
+            recurrences.remove(event.getId());
+        } else {
+            recurrences.put(event.getId(), rule);
+        }
+        updateBusyDays(event, rule, false);
+        setReminderMinutes(event.getId(), reminderMinutes);
+        markModified();
+        fireEventChanged(event.getId());
+    }
+
+    public synchronized List<Event> findEventsByTitle(String title) {
+        List<Event> matches = new ArrayList<>();
+        int code = dictionary.codeOf(title);
+        if (code < 0) {
+            return matches;
+        }
+        for (int row = 0; row < columns.size(); row++) {
+            if (columns.titleCodeAt(row) == code) {
+                matches.add(events.get(columns.idAt(row)));
+            }
+        }
+        matches.sort(Comparator.comparingLong(Event::getStartMinute).thenComparingInt(Event::getId));
+        return matches;
+    }
+
+    public synchronized List<String> suggestTitles(String prefix, int limit) {
+        return textIndexes == null
+                ? TitleIndex.suggest(dictionary, prefix, limit)
+                : textIndexes.prefixes.suggest(prefix, limit);
+    }
+
+    public synchronized int getNextId() {
+        return nextId;
+    }
+
+    public synchronized Optional<Event> findEvent(int id) {
         return Optional.ofNullable(events.get(id));
     }
 
-    public List<Event> listEvents() {
-        List<Event> list = new ArrayList<>(events.values());
-        list.sort(Comparator.comparing(Event::getStart));
-        return list;
+    public synchronized Collection<Event> listEvents() {
+        return Collections.unmodifiableCollection(startIndex().values());
+    }
+
+    public synchronized Collection<Event> eventsStartingBetween(LocalDateTime from, LocalDateTime to) {
+        return Collections.unmodifiableCollection(
+                startIndex().subMap(EventKey.before(from), true, EventKey.before(to), false).values());
+    }
+
+    public synchronized Page<Event> pageEvents(EventKey after, int pageSize) {
+        NavigableMap<EventKey, Event> tail = after == null ? startIndex() : startIndex().tailMap(after, false);
+        List<Event> items = new ArrayList<>(pageSize);
+        EventKey nextKey = null;
+        for (Map.Entry<EventKey, Event> entry : tail.entrySet()) {
+            if (items.size() == pageSize) {
+                nextKey = EventKey.of(items.get(items.size() - 1));
+                break;
+            }
+            items.add(entry.getValue());
+        }
+        return new Page<>(items, nextKey);
+    }
+
+    public synchronized Page<EventOccurrence> pageOccurrences(LocalDate startDate, LocalDate endDate,
+                                                              EventKey after, int pageSize) {
+        long windowStart = EpochMinutes.of(startDate);
+        long windowEnd = EpochMinutes.of(endDate.plusDays(1));
+        boolean fromWindowStart = after == null || after.getStartMinute() < windowStart;
+        EventKey lowerBound = fromWindowStart ? new EventKey(windowStart, Integer.MIN_VALUE) : after;
+
+        PriorityQueue<OccurrenceCursor> series = new PriorityQueue<>();
+        for (RecurrenceRule rule : recurrences) {
+            OccurrenceCursor cursor = new OccurrenceCursor(events.get(rule.getEventId()), rule);
+            cursor.skipTo(lowerBound.getStartMinute());
+            while (!fromWindowStart && cursor.hasCurrent() && cursor.currentKey().compareTo(after) <= 0) {
+                cursor.advance();
+            }
+            if (cursor.hasCurrent() && cursor.currentStartMinute() < windowEnd) {
+                series.add(cursor);
+            }
+        }
+        return collectOccurrencePage(startDate, endDate, lowerBound, fromWindowStart, series, pageSize);
+    }
+
+    public synchronized Page<EventOccurrence> nextOccurrences(Page<EventOccurrence> previous, int pageSize) {
+        if (!previous.hasMore()) {
+            return new Page<>(new ArrayList<>(), null);
+        }
+        if (!(previous.getContinuation() instanceof OccurrenceContinuation)) {
+            throw new IllegalArgumentException("Page was not returned by pageOccurrences.");
+        }
+        OccurrenceContinuation continuation = (OccurrenceContinuation) previous.getContinuation();
+        PriorityQueue<OccurrenceCursor> series = continuation.take(changeCount);
+        if (series == null) {
+            return pageOccurrences(continuation.startDate, continuation.endDate, previous.getNextKey(), pageSize);
+        }
+        return collectOccurrencePage(continuation.startDate, continuation.endDate, previous.getNextKey(), false,
+                series, pageSize);
+    }
+
+    private Page<EventOccurrence> collectOccurrencePage(LocalDate startDate, LocalDate endDate, EventKey lowerBound,
+                                                        boolean inclusive, PriorityQueue<OccurrenceCursor> series,
+                                                        int pageSize) {
+        long windowEnd = EpochMinutes.of(endDate.plusDays(1));
+        Iterator<Event> singles = startIndex().tailMap(lowerBound, inclusive).values().iterator();
+        Event nextSingle = nextSingleEvent(singles, windowEnd);
+        List<EventOccurrence> items = new ArrayList<>(pageSize);
+        EventKey lastKey = null;
+        while (nextSingle != null || !series.isEmpty()) {
+            if (items.size() == pageSize) {
+                return new Page<>(items, lastKey, new OccurrenceContinuation(startDate, endDate, changeCount, series));
+            }
+            OccurrenceCursor cursor = series.peek();
+            if (nextSingle != null && (cursor == null || EventKey.of(nextSingle).compareTo(cursor.currentKey()) < 0)) {
+                items.add(new EventOccurrence(nextSingle, 0, false));
+                lastKey = EventKey.of(nextSingle);
+                nextSingle = nextSingleEvent(singles, windowEnd);
+                continue;
+            }
+            series.poll();
+            items.add(cursor.current());
+            lastKey = cursor.currentKey();
+            cursor.advance();
+            if (cursor.hasCurrent() && cursor.currentStartMinute() < windowEnd) {
+                series.add(cursor);
+            }
+        }
+        return new Page<>(items, null);
+    }
+
+    public void forEachOccurrence(LocalDate startDate, LocalDate endDate, OccurrenceVisitor visitor)
+            throws IOException {
+        visitRange(startDate, endDate, true, visitor);
+    }
+
+    public void forEachSeries(LocalDate startDate, LocalDate endDate, OccurrenceVisitor visitor)
+            throws IOException {
+        visitRange(startDate, endDate, false, visitor);
+    }
+
+    private void visitRange(LocalDate startDate, LocalDate endDate, boolean expand, OccurrenceVisitor visitor)
+            throws IOException {
+        long windowStart = EpochMinutes.of(startDate);
+        long windowEnd = EpochMinutes.of(endDate.plusDays(1));
+        EventKey after = null;
+        while (true) {
+            List<VisitedOccurrence> chunk;
+            synchronized (this) {
+                chunk = collectRange(windowStart, windowEnd, expand, after, VISIT_CHUNK_SIZE);
+            }
+            for (VisitedOccurrence item : chunk) {
+                visitor.visit(item.occurrence, item.rule, item.reminderMinutes);
+            }
+            if (chunk.size() < VISIT_CHUNK_SIZE) {
+                return;
+            }
+            EventOccurrence last = chunk.get(chunk.size() - 1).occurrence;
+            after = new EventKey(last.getStartMinute(), last.getEventId());
+        }
+    }
+
+    private List<VisitedOccurrence> collectRange(long windowStart, long windowEnd, boolean expand,
+                                                 EventKey after, int limit) {
+        EventKey lowerBound = after == null ? new EventKey(windowStart, Integer.MIN_VALUE) : after;
+        Iterator<Event> singles = startIndex().tailMap(lowerBound, after == null).values().iterator();
+        Event nextSingle = nextSingleEvent(singles, windowEnd);
+        PriorityQueue<OccurrenceCursor> series = new PriorityQueue<>();
+        for (RecurrenceRule rule : recurrences) {
+            OccurrenceCursor cursor = new OccurrenceCursor(events.get(rule.getEventId()), rule);
+            if (expand && after != null) {
+                cursor.skipTo(after.getStartMinute());
+                while (cursor.hasCurrent() && cursor.currentKey().compareTo(after) <= 0) {
+                    cursor.advance();
+                }
+            } else {
+                cursor.skipTo(windowStart);
+            }
+            if (cursor.hasCurrent() && cursor.currentStartMinute() < windowEnd
+                    && (after == null || cursor.currentKey().compareTo(after) > 0)) {
+                series.add(cursor);
+            }
+        }
+
+        List<VisitedOccurrence> chunk = new ArrayList<>(Math.min(limit, 64));
+        IntObjectMap<Event> copies = new IntObjectMap<>();
+        while (chunk.size() < limit && (nextSingle != null || !series.isEmpty())) {
+            OccurrenceCursor cursor = series.peek();
+            if (nextSingle != null && (cursor == null || EventKey.of(nextSingle).compareTo(cursor.currentKey()) < 0)) {
+                chunk.add(new VisitedOccurrence(new EventOccurrence(copyOf(nextSingle, copies), 0, false),
+                        null, reminderOf(nextSingle.getId())));
+                nextSingle = nextSingleEvent(singles, windowEnd);
+                continue;
+            }
+            series.poll();
+            EventOccurrence occurrence = cursor.current();
+            int id = occurrence.getEventId();
+            chunk.add(new VisitedOccurrence(new EventOccurrence(copyOf(occurrence.getEvent(), copies),
+                    occurrence.getOffsetMinutes(), occurrence.isRecurring()), recurrences.get(id), reminderOf(id)));
+            if (!expand) {
+                continue;
+            }
+            cursor.advance();
+            if (cursor.hasCurrent() && cursor.currentStartMinute() < windowEnd) {
+                series.add(cursor);
+            }
+        }
+        return chunk;
+    }
+
+    private static Event copyOf(Event event, IntObjectMap<Event> copies) {
+        Event copy = copies.get(event.getId());
+        if (copy == null) {
+            copy = new Event(event.getId(), event.getTitle(), event.getDescription(),
+                    event.getStartMinute(), event.getEndMinute());
+            copies.put(event.getId(), copy);
+        }
+        return copy;
+    }
+
+    private Integer reminderOf(int eventId) {
+        return reminders.containsKey(eventId) ? reminders.get(eventId, 0) : null;
+    }
+
+    public synchronized List<EventOccurrence> upcoming(LocalDateTime from, int limit) {
+        return upcoming(EpochMinutes.of(from), limit, false);
+    }
+
+    public synchronized List<EventOccurrence> upcomingWithReminders(LocalDateTime from, int limit) {
+        return upcoming(EpochMinutes.of(from), limit, true);
+    }
+
+    private List<EventOccurrence> upcoming(long from, int limit, boolean remindersOnly) {
+        List<EventOccurrence> result = new ArrayList<>(Math.max(0, Math.min(limit, events.size())));
+        if (limit <= 0) {
+            return result;
+        }
+        Iterator<Event> singles = startIndex().tailMap(new EventKey(from, Integer.MIN_VALUE), true)
+                .values().iterator();
+        Event nextSingle = nextUpcomingSingle(singles, remindersOnly);
+        List<OccurrenceCursor> cursors = new ArrayList<>();
+        for (RecurrenceRule rule : recurrences) {
+            if (remindersOnly && !reminders.containsKey(rule.getEventId())) {
+                continue;
+            }
+            OccurrenceCursor cursor = new OccurrenceCursor(events.get(rule.getEventId()), rule);
+            cursor.skipTo(from);
+            if (cursor.hasCurrent()) {
+                cursors.add(cursor);
+            }
+        }
+        PriorityQueue<OccurrenceCursor> series = new PriorityQueue<>(cursors);
+        while (result.size() < limit && (nextSingle != null || !series.isEmpty())) {
+            OccurrenceCursor cursor = series.peek();
+            if (nextSingle != null && (cursor == null
+                    || EventKey.of(nextSingle).compareTo(cursor.currentKey()) < 0)) {
+                result.add(new EventOccurrence(nextSingle, 0, false));
+                nextSingle = nextUpcomingSingle(singles, remindersOnly);
+                continue;
+            }
+            series.poll();
+            result.add(cursor.current());
+            cursor.advance();
+            if (cursor.hasCurrent()) {
+                series.add(cursor);
+            }
+        }
+        return result;
     }
 
-    public void deleteEvent(int id) {
+    private Event nextUpcomingSingle(Iterator<Event> candidates, boolean remindersOnly) {
+        while (candidates.hasNext()) {
+            Event event = candidates.next();
+            if (!recurrences.containsKey(event.getId())
+                    && (!remindersOnly || reminders.containsKey(event.getId()))) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    private Event nextSingleEvent(Iterator<Event> candidates, long windowEnd) {
+        while (candidates.hasNext()) {
+            Event event = candidates.next();
+            if (event.getStartMinute() >= windowEnd) {
+                return null;
+            }
+            if (!recurrences.containsKey(event.getId())) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    public synchronized void deleteEvent(int id) {
+        Event event = events.get(id);
+        if (event != null) {
+            updateBusyDays(event, recurrences.get(id), true);
+            unindexText(event);
+        }
+        unindexStart(id);
+        unindexTitle(id);
         events.remove(id);
+        columns.remove(id);
         recurrences.remove(id);
         reminders.remove(id);
+        markModified();
+        fireEventChanged(id);
     }
 
-    public void setRecurrence(RecurrenceRule rule) {
+    public synchronized void setRecurrence(RecurrenceRule rule) {
         if (rule == null) {
             return;
         }
+        Event event = events.get(rule.getEventId());
+        if (event != null) {
+            updateBusyDays(event, recurrences.get(rule.getEventId()), true);
+        }
         recurrences.put(rule.getEventId(), rule);
+        if (event != null) {
+            updateBusyDays(event, rule, false);
+        }
+        fireEventChanged(rule.getEventId());
     }
 
-    public void clearRecurrence(int eventId) {
+    public synchronized void clearRecurrence(int eventId) {
+        Event event = events.get(eventId);
+        if (event != null) {
+            updateBusyDays(event, recurrences.get(eventId), true);
+        }
         recurrences.remove(eventId);
+        if (event != null) {
+            updateBusyDays(event, null, false);
+        }
+        fireEventChanged(eventId);
     }
 
-    public Optional<RecurrenceRule> findRecurrence(int eventId) {
+    public synchronized Optional<RecurrenceRule> findRecurrence(int eventId) {
         return Optional.ofNullable(recurrences.get(eventId));
     }
 
-    public List<RecurrenceRule> listRecurrences() {
+    public synchronized List<RecurrenceRule> listRecurrences() {
         return new ArrayList<>(recurrences.values());
     }
 
-    public void setReminderMinutes(int eventId, Integer minutes) {
+    public synchronized void setReminderMinutes(int eventId, Integer minutes) {
         if (minutes == null) {
             reminders.remove(eventId);
-            return;
+        } else {
+            reminders.put(eventId, minutes);
         }
-        reminders.put(eventId, minutes);
+        fireEventChanged(eventId);
     }
 
-    public Optional<Integer> findReminderMinutes(int eventId) {
-        return Optional.ofNullable(reminders.get(eventId));
+    public synchronized Optional<Integer> findReminderMinutes(int eventId) {
+        if (!reminders.containsKey(eventId)) {
+            return Optional.empty();
+        }
+        return Optional.of(reminders.get(eventId, 0));
     }
 
-    public int reminderCount() {
+    public synchronized int reminderCount() {
         return reminders.size();
     }
 
+    public synchronized int[] listReminderEventIds() {
+        int[] ids = new int[reminders.size()];
+        int[] index = {0};
+        reminders.forEach((eventId, minutes) -> ids[index[0]++] = eventId);
+        return ids;
+    }
+
+    public synchronized Optional<EventOccurrence> findNextOccurrence(int eventId, LocalDateTime from) {
+        Event event = events.get(eventId);
+        if (event == null) {
+            return Optional.empty();
+        }
+        OccurrenceCursor cursor = new OccurrenceCursor(event, recurrences.get(eventId));
+        cursor.skipTo(EpochMinutes.of(from));
+        return cursor.hasCurrent() ? Optional.of(cursor.current()) : Optional.empty();
+    }
+
     public void save() throws IOException {
-        Files.createDirectories(dataDirectory);
-        writeEventsFile();
-        writeRecurrenceFile();
-        writeReminderFile();
+        synchronized (saveLock) {
+            List<String> eventLines;
+            List<String> recurrenceLines;
+            List<String> reminderLines;
+            List<String> exceptionLines;
+            long modification;
+            synchronized (this) {
+                eventLines = formatEventLines();
+                recurrenceLines = formatRecurrenceLines();
+                reminderLines = formatReminderLines();
+                exceptionLines = formatExceptionLines();
+                modification = modificationCount;
+            }
+            Files.createDirectories(dataDirectory);
+            long eventChecksum = writeFile(eventFile, eventLines);
+            long eventLength = Files.size(eventFile);
+            writeFile(recurrenceFile, recurrenceLines);
+            writeFile(reminderFile, reminderLines);
+            writeFile(exceptionFile, exceptionLines);
+            synchronized (this) {
+                if (eventLength != savedEventLength || eventChecksum != savedEventChecksum) {
+                    snapshotCurrent = false;
+                }
+                savedModificationCount = modification;
+                savedEventLength = eventLength;
+                savedEventChecksum = eventChecksum;
+            }
+        }
     }
 
-    private void writeEventsFile() throws IOException {
-        Path tempFile = eventFile.resolveSibling("event.csv.tmp");
-        try (BufferedWriter writer = Files.newBufferedWriter(tempFile)) {
-            writer.write("eventId,title,description,startDateTime,endDateTime");
-            writer.newLine();
-            for (Event event : listEvents()) {
-                writer.write(event.getId() + "," +
-                        CsvUtil.toCsvField(event.getTitle()) + "," +
-                        CsvUtil.toCsvField(event.getDescription()) + "," +
-                        event.getStart() + "," +
-                        event.getEnd());
-                writer.newLine();
+    public void saveIndexSnapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long eventLength;
+            long eventChecksum;
+            byte[] encoded;
+            synchronized (this) {
+                if (textIndexes == null || snapshotCurrent || savedEventLength < 0
+                        || modificationCount != savedModificationCount) {
+                    return;
+                }
+                eventLength = savedEventLength;
+                eventChecksum = savedEventChecksum;
+                encoded = IndexSnapshot.encode(eventLength, eventChecksum,
+                        textIndexes.titles, textIndexes.descriptions, textIndexes.prefixes);
+            }
+            IndexSnapshot.write(indexFile, encoded);
+            synchronized (this) {
+                if (eventLength == savedEventLength && eventChecksum == savedEventChecksum) {
+                    snapshotCurrent = true;
+                }
             }
         }
-        moveTempFile(tempFile, eventFile);
     }
 
-    private void writeRecurrenceFile() throws IOException {
-        Path tempFile = recurrenceFile.resolveSibling("recurrent.csv.tmp");
-        try (BufferedWriter writer = Files.newBufferedWriter(tempFile)) {
-            writer.write("eventId,recurrentInterval,recurrentTimes,recurrentEndDate");
-            writer.newLine();
-            for (RecurrenceRule rule : listRecurrences()) {
-                writer.write(rule.getEventId() + "," +
-                        rule.toIntervalString() + "," +
-                        rule.getTimes() + "," +
-                        (rule.getEndDate() == null ? 0 : rule.getEndDate()));
-                writer.newLine();
+    private NavigableMap<EventKey, Event> startIndex() {
+        if (startIndex == null) {
+            List<Event> sorted = events.values();
+            sorted.sort(Comparator.comparingLong(Event::getStartMinute).thenComparingInt(Event::getId));
+            startIndex = buildStartIndex(sorted);
+        }
+        return startIndex;
+    }
+
+    private static NavigableMap<EventKey, Event> buildStartIndex(List<Event> sorted) {
+        TreeMap<EventKey, Event> index = new TreeMap<>();
+        for (Event event : sorted) {
+            index.put(EventKey.of(event), event);
+        }
+        return index;
+    }
+
+    private void unindexStart(int id) {
+        int row = columns.rowOf(id);
+        if (startIndex != null && row >= 0) {
+            startIndex.remove(new EventKey(columns.startAt(row), id));
+        }
+    }
+
+    private void indexEvent(Event event) {
+        unindexStart(event.getId());
+        if (startIndex != null) {
+            startIndex.put(EventKey.of(event), event);
+        }
+        int titleCode = dictionary.intern(event.getTitle());
+        event.setTitle(dictionary.get(titleCode));
+        if (event.getDescription() == null) {
+            event.setDescription("");
+        }
+        unindexTitle(event.getId());
+        columns.put(event.getId(), event.getStartMinute(), event.getEndMinute(), titleCode);
+        if (textIndexes != null) {
+            textIndexes.add(event);
+        } else if (pendingTextIds != null) {
+            pendingTextIds.add(event.getId());
+        }
+    }
+
+    private void unindexText(Event event) {
+        if (textIndexes != null) {
+            textIndexes.remove(event);
+        } else if (pendingTextIds != null && pendingTextIds.add(event.getId())) {
+            copyOf(event, pendingTextBaseline);
+        }
+    }
+
+    private void unindexTitle(int id) {
+        int row = columns.rowOf(id);
+        if (row >= 0) {
+            dictionary.release(columns.titleCodeAt(row));
+        }
+    }
+
+    private void markModified() {
+        modificationCount++;
+    }
+
+    synchronized SyncHashes syncHashes() {
+        if (syncHashes == null) {
+            SyncHashes hashes = new SyncHashes();
+            for (Event event : events) {
+                hashes.put(event.getId(), SyncHashes.monthOf(event.getStart()), contentHashOf(event));
             }
+            syncHashes = hashes;
         }
-        moveTempFile(tempFile, recurrenceFile);
+        return syncHashes;
     }
 
-    private void writeReminderFile() throws IOException {
-        Path tempFile = reminderFile.resolveSibling("reminder.csv.tmp");
-        try (BufferedWriter writer = Files.newBufferedWriter(tempFile)) {
-            writer.write("eventId,minutesBefore");
-            writer.newLine();
-            for (Map.Entry<Integer, Integer> entry : reminders.entrySet()) {
-                writer.write(entry.getKey() + "," + entry.getValue());
+    void buildTextIndexes() {
+        IntSet changed = new IntSet();
+        IntObjectMap<Event> baseline = new IntObjectMap<>();
+        int[] ids;
+        String[] titles;
+        String[] descriptions;
+        synchronized (this) {
+            if (textIndexes != null || pendingTextIds != null) {
+                return;
+            }
+            ids = new int[events.size()];
+            titles = new String[ids.length];
+            descriptions = new String[ids.length];
+            int index = 0;
+            for (Event event : events) {
+                ids[index] = event.getId();
+                titles[index] = event.getTitle();
+                descriptions[index] = event.getDescription();
+                index++;
+            }
+            pendingTextIds = changed;
+            pendingTextBaseline = baseline;
+        }
+        TextIndexes built = null;
+        try {
+            TextIndexes indexes = new TextIndexes();
+            for (int i = 0; i < ids.length; i++) {
+                indexes.add(ids[i], titles[i], descriptions[i]);
+            }
+            built = indexes;
+        } finally {
+            synchronized (this) {
+                if (pendingTextIds == changed) {
+                    if (built != null) {
+                        for (int id : changed.toArray()) {
+                            Event before = baseline.get(id);
+                            if (before != null) {
+                                built.remove(before);
+                            }
+                            Event event = events.get(id);
+                            if (event != null) {
+                                built.add(event);
+                            }
+                        }
+                        textIndexes = built;
+                    }
+                    pendingTextIds = null;
+                    pendingTextBaseline = null;
+                }
+            }
+        }
+    }
+
+    private long contentHashOf(Event event) {
+        return StoreSync.contentHash(event, recurrences.get(event.getId()), reminderOf(event.getId()));
+    }
+
+    private void updateSyncHash(int eventId) {
+        if (syncHashes == null) {
+            return;
+        }
+        Event event = events.get(eventId);
+        if (event == null) {
+            syncHashes.remove(eventId);
+        } else {
+            syncHashes.put(eventId, SyncHashes.monthOf(event.getStart()), contentHashOf(event));
+        }
+    }
+
+    private void fireEventChanged(int eventId) {
+        changeCount++;
+        updateSyncHash(eventId);
+        for (ChangeListener listener : changeListeners) {
+            listener.eventChanged(eventId);
+        }
+    }
+
+    private List<String> formatEventLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("eventId,title,description,startDateTime,endDateTime");
+        for (Event event : listEvents()) {
+            lines.add(event.getId() + "," +
+                    CsvUtil.toCsvField(event.getTitle()) + "," +
+                    CsvUtil.toCsvField(event.getDescription()) + "," +
+                    event.getStart() + "," +
+                    event.getEnd());
+        }
+        return lines;
+    }
+
+    private List<String> formatRecurrenceLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("eventId,recurrentInterval,recurrentTimes,recurrentEndDate,recurrentPattern");
+        for (RecurrenceRule rule : listRecurrences()) {
+            String pattern = rule.toPatternString();
+            lines.add(rule.getEventId() + "," +
+                    rule.getIntervalCount() + rule.getUnit().getCode() + "," +
+                    rule.getTimes() + "," +
+                    (rule.getEndDate() == null ? 0 : rule.getEndDate()) +
+                    (pattern.isEmpty() ? "" : "," + CsvUtil.toCsvField(pattern)));
+        }
+        return lines;
+    }
+
+    private List<String> formatExceptionLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("eventId,exceptionDate");
+        for (RecurrenceRule rule : listRecurrences()) {
+            for (long day : rule.exceptionDays()) {
+                lines.add(rule.getEventId() + "," + LocalDate.ofEpochDay(day));
+            }
+        }
+        return lines;
+    }
+
+    private List<String> formatReminderLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("eventId,minutesBefore");
+        reminders.forEach((eventId, minutes) -> lines.add(eventId + "," + minutes));
+        return lines;
+    }
+
+    private long writeFile(Path targetFile, List<String> lines) throws IOException {
+        Path tempFile = targetFile.resolveSibling(targetFile.getFileName() + ".tmp");
+        CRC32 checksum = new CRC32();
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new CheckedOutputStream(Files.newOutputStream(tempFile), checksum),
+                StandardCharsets.UTF_8.newEncoder()))) {
+            for (String line : lines) {
+                writer.write(line);
                 writer.newLine();
             }
         }
-        moveTempFile(tempFile, reminderFile);
+        moveTempFile(tempFile, targetFile);
+        return checksum.getValue();
+    }
+
+    private static List<String> readLines(byte[] content) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(content), StandardCharsets.UTF_8.newDecoder()))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lines.add(line);
+            }
+        }
+        return lines;
     }
 
     private void moveTempFile(Path tempFile, Path targetFile) throws IOException {
@@ -236,6 +935,14 @@ public class EventStore {
                     writer.newLine();
                 }
             }
+            writer.write("#EXCEPTIONS");
+            writer.newLine();
+            if (Files.exists(exceptionFile)) {
+                for (String line : Files.readAllLines(exceptionFile)) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
         }
     }
 
@@ -244,47 +951,44 @@ public class EventStore {
         List<String> eventLines = new ArrayList<>();
         List<String> recurrenceLines = new ArrayList<>();
         List<String> reminderLines = new ArrayList<>();
-        boolean inEvents = false;
-        boolean inRecurrences = false;
-        boolean inReminders = false;
+        List<String> exceptionLines = new ArrayList<>();
+        List<String> section = null;
         for (String line : lines) {
             if (line.equals("#EVENTS")) {
-                inEvents = true;
-                inRecurrences = false;
-                inReminders = false;
+                section = eventLines;
                 continue;
             }
             if (line.equals("#RECURRENCES")) {
-                inEvents = false;
-                inRecurrences = true;
-                inReminders = false;
+                section = recurrenceLines;
                 continue;
             }
             if (line.equals("#REMINDERS")) {
-                inEvents = false;
-                inRecurrences = false;
-                inReminders = true;
+                section = reminderLines;
+                continue;
+            }
+            if (line.equals("#EXCEPTIONS")) {
+                section = exceptionLines;
                 continue;
             }
-            if (inEvents) {
-                eventLines.add(line);
-            } else if (inRecurrences) {
-                recurrenceLines.add(line);
-            } else if (inReminders) {
-                reminderLines.add(line);
+            if (section != null) {
+                section.add(line);
             }
         }
 
-        if (replace) {
-            Files.createDirectories(dataDirectory);
-            Files.write(eventFile, eventLines);
-            Files.write(recurrenceFile, recurrenceLines);
-            Files.write(reminderFile, reminderLines);
-        } else {
-            Files.createDirectories(dataDirectory);
-            appendLines(eventFile, eventLines);
-            appendLines(recurrenceFile, recurrenceLines);
-            appendLines(reminderFile, reminderLines);
+        synchronized (saveLock) {
+            if (replace) {
+                Files.createDirectories(dataDirectory);
+                Files.write(eventFile, eventLines);
+                Files.write(recurrenceFile, recurrenceLines);
+                Files.write(reminderFile, reminderLines);
+                Files.write(exceptionFile, exceptionLines);
+            } else {
+                Files.createDirectories(dataDirectory);
+                appendLines(eventFile, eventLines);
+                appendLines(recurrenceFile, recurrenceLines);
+                appendLines(reminderFile, reminderLines);
+                appendLines(exceptionFile, exceptionLines);
+            }
         }
         load();
     }
@@ -304,7 +1008,7 @@ public class EventStore {
         }
         try (BufferedWriter writer = Files.newBufferedWriter(file, java.nio.file.StandardOpenOption.APPEND)) {
             int startIndex = 0;
-            if (!existing.isEmpty() && !lines.isEmpty() && existing.get(0).equals(lines.get(0))) {
+            if (!existing.isEmpty() && !lines.isEmpty() && sameHeader(existing.get(0), lines.get(0))) {
                 startIndex = 1;
             }
             for (int i = startIndex; i < lines.size(); i++) {
@@ -314,23 +1018,150 @@ public class EventStore {
         }
     }
 
-    public Map<LocalDate, List<EventOccurrence>> occurrencesBetween(LocalDate startDate, LocalDate endDate) {
-        Map<LocalDate, List<EventOccurrence>> result = new HashMap<>();
-        for (Event event : events.values()) {
-            RecurrenceRule rule = recurrences.get(event.getId());
-            List<EventOccurrence> occurrences = EventTimeline.expandOccurrences(event, rule, startDate, endDate);
-            for (EventOccurrence occurrence : occurrences) {
-                LocalDate date = occurrence.getStart().toLocalDate();
-                result.computeIfAbsent(date, key -> new ArrayList<>()).add(occurrence);
+    private static boolean sameHeader(String existingHeader, String header) {
+        if (existingHeader.equals(header)) {
+            return true;
+        }
+        int nameEnd = existingHeader.indexOf(',');
+        return nameEnd > 0 && !header.isEmpty() && !Character.isDigit(header.charAt(0))
+                && header.startsWith(existingHeader.substring(0, nameEnd + 1));
+    }
+
+    public synchronized DailyOccurrences occurrencesBetween(LocalDate startDate, LocalDate endDate) {
+        List<EventOccurrence> result = new ArrayList<>();
+        long firstDay = startDate.toEpochDay();
+        long lastDay = endDate.toEpochDay();
+        for (int row = 0; row < columns.size(); row++) {
+            addOccurrences(result, columns.idAt(row), columns.startAt(row), startDate, endDate, firstDay, lastDay);
+        }
+        return DailyOccurrences.of(startDate, endDate, result);
+    }
+
+    public synchronized List<EventOccurrence> search(Query query) {
+        long windowStart = query.getWindowStartMinute();
+        long windowEnd = query.getWindowEndMinute();
+        List<OccurrenceCursor> cursors = new ArrayList<>();
+        Iterator<Event> singles = Collections.emptyIterator();
+        int[] candidates = textIndexes == null ? null
+                : intersectCandidates(textIndexes.titles.candidates(query.getTitleTerm()),
+                        textIndexes.descriptions.candidates(query.getDescriptionTerm()));
+        if (candidates != null) {
+            for (int id : candidates) {
+                addCursor(cursors, query, events.get(id), windowStart, windowEnd);
+            }
+        } else {
+            if (!query.isRecurringOnly()) {
+                singles = startIndex().subMap(new EventKey(windowStart, Integer.MIN_VALUE), true,
+                        new EventKey(windowEnd, Integer.MIN_VALUE), false).values().iterator();
+            }
+            for (RecurrenceRule rule : recurrences) {
+                addCursor(cursors, query, events.get(rule.getEventId()), windowStart, windowEnd);
+            }
+        }
+
+        boolean latestFirst = query.getSort() == Query.Sort.LATEST_FIRST;
+        int limit = query.getLimit();
+        Event nextSingle = nextMatchingSingle(singles, query);
+        PriorityQueue<OccurrenceCursor> series = new PriorityQueue<>(cursors);
+        ArrayDeque<EventOccurrence> matches = new ArrayDeque<>();
+        while ((nextSingle != null || !series.isEmpty()) && (latestFirst || matches.size() < limit)) {
+            OccurrenceCursor cursor = series.peek();
+            if (nextSingle != null && (cursor == null
+                    || EventKey.of(nextSingle).compareTo(cursor.currentKey()) < 0)) {
+                matches.addLast(new EventOccurrence(nextSingle, 0, false));
+                nextSingle = nextMatchingSingle(singles, query);
+            } else {
+                series.poll();
+                matches.addLast(cursor.current());
+                cursor.advance();
+                if (cursor.hasCurrent() && cursor.currentStartMinute() < windowEnd) {
+                    series.add(cursor);
+                }
+            }
+            if (matches.size() > limit) {
+                matches.pollFirst();
             }
         }
-        for (List<EventOccurrence> dayOccurrences : result.values()) {
-            dayOccurrences.sort(Comparator.comparing(EventOccurrence::getStart));
+        List<EventOccurrence> result = new ArrayList<>(matches);
+        if (latestFirst) {
+            Collections.reverse(result);
         }
         return result;
     }
 
-    public boolean hasConflict(int ignoreEventId, Event candidate, RecurrenceRule rule) {
+    private Event nextMatchingSingle(Iterator<Event> candidates, Query query) {
+        while (candidates.hasNext()) {
+            Event event = candidates.next();
+            if (!recurrences.containsKey(event.getId()) && matchesEvent(query, event, null)) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    private void addCursor(List<OccurrenceCursor> cursors, Query query, Event event, long windowStart, long windowEnd) {
+        if (event == null || event.getStartMinute() >= windowEnd) {
+            return;
+        }
+        RecurrenceRule rule = recurrences.get(event.getId());
+        if (rule == null && event.getStartMinute() < windowStart) {
+            return;
+        }
+        if (!matchesEvent(query, event, rule)) {
+            return;
+        }
+        OccurrenceCursor cursor = new OccurrenceCursor(event, rule);
+        cursor.skipTo(windowStart);
+        if (cursor.hasCurrent() && cursor.currentStartMinute() < windowEnd) {
+            cursors.add(cursor);
+        }
+    }
+
+    private boolean matchesEvent(Query query, Event event, RecurrenceRule rule) {
+        int id = event.getId();
+        if (query.isRecurringOnly() && rule == null) {
+            return false;
+        }
+        if (query.isRemindersOnly() && !reminders.containsKey(id)) {
+            return false;
+        }
+        if (!query.acceptsDuration(event.getEndMinute() - event.getStartMinute())) {
+            return false;
+        }
+        return TextIndex.contains(event.getTitle(), query.getTitleTerm())
+                && TextIndex.contains(event.getDescription(), query.getDescriptionTerm());
+    }
+
+    private void addOccurrences(List<EventOccurrence> result, int id, long startMinute,
+                                LocalDate startDate, LocalDate endDate, long firstDay, long lastDay) {
+        RecurrenceRule rule = recurrences.get(id);
+        if (rule == null) {
+            long day = EpochMinutes.epochDay(startMinute);
+            if (day >= firstDay && day <= lastDay) {
+                result.add(new EventOccurrence(events.get(id), 0, false));
+            }
+            return;
+        }
+        result.addAll(EventTimeline.expandOccurrences(events.get(id), rule, startDate, endDate));
+    }
+
+    private static int[] intersectCandidates(int[] first, int[] second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        int[] sorted = second.clone();
+        Arrays.sort(sorted);
+        int[] result = new int[Math.min(first.length, second.length)];
+        int count = 0;
+        for (int id : first) {
+            if (Arrays.binarySearch(sorted, id) >= 0) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    public synchronized boolean hasConflict(int ignoreEventId, Event candidate, RecurrenceRule rule) {
         if (candidate == null) {
             return false;
         }
@@ -340,34 +1171,472 @@ public class EventStore {
                 candidate.getEnd().toLocalDate(),
                 rule
         );
-        Event tempEvent = new Event(candidate.getId(), candidate.getTitle(),
-                candidate.getDescription(), candidate.getStart(), candidate.getEnd());
         List<EventOccurrence> candidateOccurrences = EventTimeline.expandOccurrences(
-                tempEvent, rule, rangeStart, rangeEnd
+                candidate, rule, rangeStart, rangeEnd
         );
+        int count = candidateOccurrences.size();
+        long[] candidateStarts = new long[count];
+        long[] candidateEnds = new long[count];
+        for (int i = 0; i < count; i++) {
+            candidateStarts[i] = candidateOccurrences.get(i).getStartMinute();
+            candidateEnds[i] = candidateOccurrences.get(i).getEndMinute();
+        }
+        long firstDay = rangeStart.toEpochDay();
+        long lastDay = rangeEnd.toEpochDay();
 
-        for (Event existing : events.values()) {
-            if (existing.getId() == ignoreEventId) {
+        for (int row = 0; row < columns.size(); row++) {
+            int id = columns.idAt(row);
+            if (id == ignoreEventId) {
+                continue;
+            }
+            RecurrenceRule existingRule = recurrences.get(id);
+            if (existingRule == null) {
+                long day = EpochMinutes.epochDay(columns.startAt(row));
+                if (day >= firstDay && day <= lastDay
+                        && overlapsAny(columns.startAt(row), columns.endAt(row), candidateStarts, candidateEnds)) {
+                    return true;
+                }
                 continue;
             }
-            RecurrenceRule existingRule = recurrences.get(existing.getId());
             List<EventOccurrence> existingOccurrences = EventTimeline.expandOccurrences(
-                    existing, existingRule, rangeStart, rangeEnd
+                    events.get(id), existingRule, rangeStart, rangeEnd
             );
             for (EventOccurrence existingOccurrence : existingOccurrences) {
-                for (EventOccurrence candidateOccurrence : candidateOccurrences) {
-                    if (overlaps(existingOccurrence, candidateOccurrence)) {
-                        return true;
-                    }
+                if (overlapsAny(existingOccurrence.getStartMinute(), existingOccurrence.getEndMinute(),
+                        candidateStarts, candidateEnds)) {
+                    return true;
                 }
             }
         }
         return false;
     }
 
-    private boolean overlaps(EventOccurrence first, EventOccurrence second) {
-        return first.getStart().isBefore(second.getEnd())
-                && first.getEnd().isAfter(second.getStart());
+    public synchronized List<MutationBatch.Conflict> findConflicts(MutationBatch batch) {
+        IntObjectMap<RecurrenceRule> batchRules = new IntObjectMap<>();
+        IntIntMap replaced = new IntIntMap();
+        IntObjectMap<Event> pending = pendingEvents(batch, batchRules, replaced);
+        return sweepConflicts(pending, batchRules, replaced);
+    }
+
+    public synchronized List<MutationBatch.Conflict> findConflicts(int[] eventIds) {
+        IntObjectMap<Event> pending = new IntObjectMap<>(eventIds.length);
+        IntObjectMap<RecurrenceRule> rules = new IntObjectMap<>();
+        IntIntMap replaced = new IntIntMap(eventIds.length);
+        for (int id : eventIds) {
+            Event event = events.get(id);
+            if (event == null) {
+                continue;
+            }
+            pending.put(id, event);
+            replaced.put(id, 0);
+            if (recurrences.containsKey(id)) {
+                rules.put(id, recurrences.get(id));
+            }
+        }
+        return sweepConflicts(pending, rules, replaced);
+    }
+
+    private List<MutationBatch.Conflict> sweepConflicts(IntObjectMap<Event> pending,
+                                                        IntObjectMap<RecurrenceRule> batchRules,
+                                                        IntIntMap replaced) {
+        List<MutationBatch.Conflict> conflicts = new ArrayList<>();
+        PriorityQueue<SweepSource> sources = new PriorityQueue<>();
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        int rank = 0;
+        for (Event candidate : pending) {
+            RecurrenceRule rule = batchRules.get(candidate.getId());
+            LocalDate rangeStart = candidate.getStart().toLocalDate();
+            LocalDate rangeEnd = calculateRangeEnd(rangeStart, candidate.getEnd().toLocalDate(), rule);
+            long limit = EpochMinutes.of(rangeEnd.plusDays(1));
+            SweepSource source = new SweepSource(new OccurrenceCursor(candidate, rule), true, false, rank++, limit);
+            if (!source.live()) {
+                continue;
+            }
+            OccurrenceCursor last = new OccurrenceCursor(candidate, rule);
+            long lastStart = last.currentStartMinute();
+            while (last.hasCurrent() && last.currentStartMinute() < limit) {
+                lastStart = last.currentStartMinute();
+                last.advance();
+            }
+            from = Math.min(from, source.start());
+            to = Math.max(to, lastStart + source.duration);
+            sources.add(source);
+        }
+        if (sources.isEmpty()) {
+            return conflicts;
+        }
+        int batchSources = sources.size();
+        for (RecurrenceRule rule : recurrences) {
+            Event event = events.get(rule.getEventId());
+            if (event == null || replaced.containsKey(event.getId())) {
+                continue;
+            }
+            OccurrenceCursor cursor = new OccurrenceCursor(event, rule);
+            cursor.skipTo(from - (event.getEndMinute() - event.getStartMinute()));
+            SweepSource source = new SweepSource(cursor, false, false, event.getId(), to + 1);
+            if (source.live()) {
+                sources.add(source);
+            }
+        }
+        Iterator<Event> singles = startIndex().headMap(new EventKey(to, Integer.MAX_VALUE), true).values().iterator();
+        SweepSource single = nextSweepSingle(singles, replaced, from, to);
+        if (single != null) {
+            sources.add(single);
+        }
+
+        ActiveIntervals activeBatch = new ActiveIntervals();
+        ActiveIntervals activeExisting = new ActiveIntervals();
+        Set<Long> reportedPairs = new HashSet<>();
+        while (!sources.isEmpty()) {
+            SweepSource source = sources.poll();
+            long start = source.start();
+            long end = start + source.duration;
+            int owner = source.owner();
+            activeBatch.expire(start);
+            if (batchSources == 0 && activeBatch.size == 0) {
+                break;
+            }
+            reportOverlaps(start, end, owner, source.fromBatch, activeBatch, pending, reportedPairs, conflicts);
+            if (source.fromBatch) {
+                activeExisting.expire(start);
+                reportOverlaps(start, end, owner, true, activeExisting, pending, reportedPairs, conflicts);
+                activeBatch.add(start, end, owner);
+            } else {
+                activeExisting.add(start, end, owner);
+            }
+            source.cursor.advance();
+            if (source.live()) {
+                sources.add(source);
+            } else if (source.fromBatch) {
+                batchSources--;
+            } else if (source.single) {
+                single = nextSweepSingle(singles, replaced, from, to);
+                if (single != null) {
+                    sources.add(single);
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private SweepSource nextSweepSingle(Iterator<Event> candidates, IntIntMap replaced, long from, long to) {
+        for (Event event = nextSingleEvent(candidates, to + 1); event != null;
+                event = nextSingleEvent(candidates, to + 1)) {
+            if (!replaced.containsKey(event.getId()) && event.getEndMinute() >= from) {
+                return new SweepSource(new OccurrenceCursor(event, null), false, true, event.getId(), to + 1);
+            }
+        }
+        return null;
+    }
+
+    public synchronized int[] apply(MutationBatch batch) {
+        pendingEvents(batch, new IntObjectMap<>(), new IntIntMap());
+        int[] created = new int[batch.createCount()];
+        int createIndex = 0;
+        for (MutationBatch.Mutation mutation : batch.mutations()) {
+            switch (mutation.kind) {
+                case CREATE -> {
+                    Event event = createEvent(mutation.title, mutation.description, mutation.start, mutation.end);
+                    if (mutation.rule != null) {
+                        setRecurrence(mutation.rule.withEventId(event.getId()));
+                    }
+                    if (mutation.reminderMinutes != null) {
+                        setReminderMinutes(event.getId(), mutation.reminderMinutes);
+                    }
+                    created[createIndex++] = event.getId();
+                }
+                case UPDATE -> updateEvent(mutation.eventId, mutation.title, mutation.description,
+                        mutation.start, mutation.end);
+                case DELETE -> deleteEvent(mutation.eventId);
+            }
+        }
+        return created;
+    }
+
+    public synchronized List<MutationBatch.Conflict> applyIfConflictFree(MutationBatch batch) {
+        List<MutationBatch.Conflict> conflicts = findConflicts(batch);
+        if (conflicts.isEmpty()) {
+            apply(batch);
+        }
+        return conflicts;
+    }
+
+    private IntObjectMap<Event> pendingEvents(MutationBatch batch, IntObjectMap<RecurrenceRule> batchRules,
+                                              IntIntMap replaced) {
+        IntObjectMap<Event> pending = new IntObjectMap<>();
+        int provisionalId = nextId;
+        for (MutationBatch.Mutation mutation : batch.mutations()) {
+            int id = mutation.kind == MutationBatch.Kind.CREATE ? provisionalId++ : mutation.eventId;
+            if (mutation.kind != MutationBatch.Kind.CREATE && !pending.containsKey(id)
+                    && (replaced.containsKey(id) || !events.containsKey(id))) {
+                throw new IllegalArgumentException("Event not found: " + id);
+            }
+            switch (mutation.kind) {
+                case CREATE -> {
+                    pending.put(id, new Event(id, mutation.title, mutation.description, mutation.start, mutation.end));
+                    if (mutation.rule != null) {
+                        batchRules.put(id, mutation.rule.withEventId(id));
+                    }
+                }
+                case UPDATE -> {
+                    pending.put(id, new Event(id, mutation.title, mutation.description, mutation.start, mutation.end));
+                    if (!batchRules.containsKey(id) && recurrences.containsKey(id)) {
+                        batchRules.put(id, recurrences.get(id));
+                    }
+                    replaced.put(id, 0);
+                }
+                case DELETE -> {
+                    pending.remove(id);
+                    batchRules.remove(id);
+                    replaced.put(id, 0);
+                }
+            }
+        }
+        return pending;
+    }
+
+    private void reportOverlaps(long start, long end, int owner, boolean currentFirst, ActiveIntervals active,
+                                IntObjectMap<Event> pending, Set<Long> reportedPairs,
+                                List<MutationBatch.Conflict> conflicts) {
+        for (int i = 0; i < active.size; i++) {
+            int otherOwner = active.owners[i];
+            long otherStart = active.starts[i];
+            long otherEnd = active.ends[i];
+            if (otherOwner == owner || !(start < otherEnd && end > otherStart)) {
+                continue;
+            }
+            long pair = ((long) Math.min(owner, otherOwner) << 32) | (Math.max(owner, otherOwner) & 0xffffffffL);
+            if (!reportedPairs.add(pair)) {
+                continue;
+            }
+            Event first = pending.get(currentFirst ? owner : otherOwner);
+            int secondOwner = currentFirst ? otherOwner : owner;
+            Event second = pending.containsKey(secondOwner) ? pending.get(secondOwner) : events.get(secondOwner);
+            conflicts.add(new MutationBatch.Conflict(first, second,
+                    new TimeSlot(Math.max(start, otherStart), Math.min(end, otherEnd))));
+        }
+    }
+
+    public synchronized boolean isFree(LocalDateTime start, LocalDateTime end) {
+        long startMinute = EpochMinutes.of(start);
+        long endMinute = EpochMinutes.of(end);
+        if (endMinute <= startMinute) {
+            throw new IllegalArgumentException("End must be after start.");
+        }
+        long firstDay = EpochMinutes.epochDay(startMinute);
+        long[][] bitmaps = busyBitmaps(firstDay, EpochMinutes.epochDay(endMinute - 1));
+        for (int i = 0; i < bitmaps.length; i++) {
+            long dayStart = (firstDay + i) * EpochMinutes.MINUTES_PER_DAY;
+            int from = (int) Math.max(0, startMinute - dayStart);
+            int to = (int) Math.min(EpochMinutes.MINUTES_PER_DAY, endMinute - dayStart);
+            if (BusyCalendar.intersects(bitmaps[i], from, to)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized List<LocalDate> freeDays(LocalDate startDate, LocalDate endDate,
+                                                 LocalTime from, LocalTime to) {
+        int fromMinute = from.getHour() * 60 + from.getMinute();
+        int toMinute = to.equals(LocalTime.MIDNIGHT)
+                ? EpochMinutes.MINUTES_PER_DAY
+                : to.getHour() * 60 + to.getMinute();
+        if (toMinute <= fromMinute) {
+            throw new IllegalArgumentException("End time must be after start time.");
+        }
+        List<LocalDate> result = new ArrayList<>();
+        if (endDate.isBefore(startDate)) {
+            return result;
+        }
+        long[][] bitmaps = busyBitmaps(startDate.toEpochDay(), endDate.toEpochDay());
+        for (int i = 0; i < bitmaps.length; i++) {
+            if (!BusyCalendar.intersects(bitmaps[i], fromMinute, toMinute)) {
+                result.add(startDate.plusDays(i));
+            }
+        }
+        return result;
+    }
+
+    public synchronized long busyMinutes(LocalDateTime start, LocalDateTime end) {
+        long startMinute = EpochMinutes.of(start);
+        long endMinute = EpochMinutes.of(end);
+        if (endMinute <= startMinute) {
+            return 0;
+        }
+        long firstDay = EpochMinutes.epochDay(startMinute);
+        long[][] bitmaps = busyBitmaps(firstDay, EpochMinutes.epochDay(endMinute - 1));
+        long busy = 0;
+        for (int i = 0; i < bitmaps.length; i++) {
+            long dayStart = (firstDay + i) * EpochMinutes.MINUTES_PER_DAY;
+            int from = (int) Math.max(0, startMinute - dayStart);
+            int to = (int) Math.min(EpochMinutes.MINUTES_PER_DAY, endMinute - dayStart);
+            busy += BusyCalendar.countBusy(bitmaps[i], from, to);
+        }
+        return busy;
+    }
+
+    public synchronized double busyPercentage(LocalDateTime start, LocalDateTime end) {
+        long total = EpochMinutes.of(end) - EpochMinutes.of(start);
+        if (total <= 0) {
+            return 0;
+        }
+        return busyMinutes(start, end) * 100.0 / total;
+    }
+
+    public synchronized List<TimeSlot> busyIntervals(LocalDateTime from, LocalDateTime to, int ignoreEventId) {
+        return busyIntervals(EpochMinutes.of(from), EpochMinutes.of(to), ignoreEventId);
+    }
+
+    public synchronized List<TimeSlot> findFreeSlots(int ignoreEventId, Duration duration, RecurrenceRule rule,
+                                                     LocalDateTime earliestStart, LocalDateTime latestEnd,
+                                                     int limit) {
+        long durationMinutes = duration.toMinutes();
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("Duration must be positive.");
+        }
+        long earliest = EpochMinutes.of(earliestStart);
+        long latest = EpochMinutes.of(latestEnd);
+        long horizon = durationMinutes;
+        if (rule != null) {
+            LocalDateTime firstEnd = earliestStart.plus(duration);
+            LocalDate rangeEnd = calculateRangeEnd(earliestStart.toLocalDate(), firstEnd.toLocalDate(), rule);
+            horizon = Math.max(horizon, EpochMinutes.of(rangeEnd.plusDays(1)) - earliest);
+        }
+        List<TimeSlot> busy = busyIntervals(earliest, latest + horizon, ignoreEventId);
+        return SlotFinder.find(busy, earliest, latest, durationMinutes, rule, horizon, limit);
+    }
+
+    synchronized List<TimeSlot> busyIntervals(long from, long to, int ignoreEventId) {
+        long[] starts = new long[Math.max(16, columns.size())];
+        long[] ends = new long[starts.length];
+        int count = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            int id = columns.idAt(row);
+            if (id == ignoreEventId) {
+                continue;
+            }
+            long start = columns.startAt(row);
+            long duration = columns.endAt(row) - start;
+            if (duration <= 0) {
+                continue;
+            }
+            RecurrenceRule rule = recurrences.get(id);
+            if (rule == null) {
+                if (start < to && start + duration > from) {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                        ends = Arrays.copyOf(ends, count * 2);
+                    }
+                    starts[count] = Math.max(start, from);
+                    ends[count] = Math.min(start + duration, to);
+                    count++;
+                }
+                continue;
+            }
+            OccurrenceCursor cursor = new OccurrenceCursor(events.get(id), rule);
+            cursor.skipTo(from - duration + 1);
+            while (cursor.hasCurrent() && cursor.currentStartMinute() < to) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                }
+                long occurrenceStart = cursor.currentStartMinute();
+                starts[count] = Math.max(occurrenceStart, from);
+                ends[count] = Math.min(occurrenceStart + duration, to);
+                count++;
+                cursor.advance();
+            }
+        }
+        return SlotFinder.merge(starts, ends, count);
+    }
+
+    private long[][] busyBitmaps(long firstDay, long lastDay) {
+        long[][] bitmaps = new long[(int) (lastDay - firstDay + 1)][];
+        long missingFrom = Long.MAX_VALUE;
+        long missingTo = Long.MIN_VALUE;
+        for (int i = 0; i < bitmaps.length; i++) {
+            bitmaps[i] = busyCalendar.cached(firstDay + i);
+            if (bitmaps[i] == null) {
+                missingFrom = Math.min(missingFrom, firstDay + i);
+                missingTo = firstDay + i;
+            }
+        }
+        if (missingFrom <= missingTo) {
+            long[][] computed = computeBusyBitmaps(missingFrom, missingTo);
+            for (int i = 0; i < computed.length; i++) {
+                int index = (int) (missingFrom - firstDay) + i;
+                if (bitmaps[index] == null) {
+                    bitmaps[index] = computed[i];
+                    busyCalendar.cache(missingFrom + i, computed[i]);
+                }
+            }
+        }
+        return bitmaps;
+    }
+
+    private long[][] computeBusyBitmaps(long firstDay, long lastDay) {
+        long[][] bitmaps = new long[(int) (lastDay - firstDay + 1)][BusyCalendar.WORDS_PER_DAY];
+        long windowStart = firstDay * EpochMinutes.MINUTES_PER_DAY;
+        long windowEnd = (lastDay + 1) * EpochMinutes.MINUTES_PER_DAY;
+        for (int row = 0; row < columns.size(); row++) {
+            int id = columns.idAt(row);
+            RecurrenceRule rule = recurrences.get(id);
+            if (rule == null) {
+                BusyCalendar.paint(bitmaps, firstDay, columns.startAt(row), columns.endAt(row));
+                continue;
+            }
+            long duration = columns.endAt(row) - columns.startAt(row);
+            OccurrenceCursor cursor = new OccurrenceCursor(events.get(id), rule);
+            cursor.skipTo(windowStart - duration);
+            while (cursor.hasCurrent() && cursor.currentStartMinute() < windowEnd) {
+                long start = cursor.currentStartMinute();
+                BusyCalendar.paint(bitmaps, firstDay, start, start + duration);
+                cursor.advance();
+            }
+        }
+        return bitmaps;
+    }
+
+    private void updateBusyDays(Event event, RecurrenceRule rule, boolean evict) {
+        if (!busyCalendar.hasCachedDays()) {
+            return;
+        }
+        long duration = event.getEndMinute() - event.getStartMinute();
+        int[] cachedDays = busyCalendar.cachedDays();
+        long cacheEnd = ((long) cachedDays[cachedDays.length - 1] + 1) * EpochMinutes.MINUTES_PER_DAY;
+        OccurrenceCursor cursor = new OccurrenceCursor(event, rule);
+        int runStart = 0;
+        while (runStart < cachedDays.length && cursor.hasCurrent()) {
+            int runEnd = runStart;
+            while (runEnd + 1 < cachedDays.length && cachedDays[runEnd + 1] == cachedDays[runEnd] + 1) {
+                runEnd++;
+            }
+            long windowStart = (long) cachedDays[runStart] * EpochMinutes.MINUTES_PER_DAY;
+            long windowEnd = ((long) cachedDays[runEnd] + 1) * EpochMinutes.MINUTES_PER_DAY;
+            cursor.skipTo(windowStart - duration);
+            while (cursor.hasCurrent() && cursor.currentStartMinute() < windowEnd) {
+                long start = Math.max(cursor.currentStartMinute(), windowStart);
+                long end = Math.min(cursor.currentStartMinute() + duration, cacheEnd);
+                if (evict) {
+                    busyCalendar.evict(start, end);
+                } else {
+                    busyCalendar.markBusy(start, end);
+                }
+                cursor.advance();
+            }
+            runStart = runEnd + 1;
+        }
+    }
+
+    private static boolean overlapsAny(long start, long end, long[] starts, long[] ends) {
+        for (int i = 0; i < starts.length; i++) {
+            if (start < ends[i] && end > starts[i]) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private LocalDate calculateRangeEnd(LocalDate startDate, LocalDate endDate, RecurrenceRule rule) {
@@ -397,6 +1666,21 @@ public class EventStore {
         if (steps <= 0) {
             return startDate;
         }
+        if (rule.hasPattern()) {
+            OccurrenceCursor cursor = new OccurrenceCursor(
+                    new Event(-1, "", "", EpochMinutes.of(startDate), EpochMinutes.of(startDate)), rule);
+            LocalDate last = startDate;
+            for (int i = 0; i < steps && cursor.hasCurrent(); i++) {
+                cursor.advance();
+                if (cursor.hasCurrent()) {
+                    last = cursor.current().getStart().toLocalDate();
+                }
+            }
+            return advanceDate(last, new RecurrenceRule(-1, rule.getIntervalCount(), rule.getUnit(), 0, null), 1);
+        }
+        if (rule.getUnit() == RecurrenceUnit.YEAR) {
+            return startDate.plusYears((long) rule.getIntervalCount() * steps);
+        }
         if (rule.getUnit() == RecurrenceUnit.DAY) {
             return startDate.plusDays((long) rule.getIntervalCount() * steps);
         }
@@ -405,4 +1689,146 @@ public class EventStore {
         }
         return startDate.plusMonths((long) rule.getIntervalCount() * steps);
     }
-}
\ No newline at end of file
+
+    private static final class SweepSource implements Comparable<SweepSource> {
+        private final OccurrenceCursor cursor;
+        private final boolean fromBatch;
+        private final boolean single;
+        private final int rank;
+        private final long duration;
+        private final long limit;
+
+        private SweepSource(OccurrenceCursor cursor, boolean fromBatch, boolean single, int rank, long limit) {
+            this.cursor = cursor;
+            this.fromBatch = fromBatch;
+            this.single = single;
+            this.rank = rank;
+            this.duration = cursor.getEvent().getEndMinute() - cursor.getEvent().getStartMinute();
+            this.limit = limit;
+        }
+
+        boolean live() {
+            return cursor.hasCurrent() && cursor.currentStartMinute() < limit;
+        }
+
+        long start() {
+            return cursor.currentStartMinute();
+        }
+
+        int owner() {
+            return cursor.getEvent().getId();
+        }
+
+        @Override
+        public int compareTo(SweepSource other) {
+            int byStart = Long.compare(start(), other.start());
+            if (byStart != 0) {
+                return byStart;
+            }
+            if (fromBatch != other.fromBatch) {
+                return fromBatch ? -1 : 1;
+            }
+            return Integer.compare(rank, other.rank);
+        }
+    }
+
+    private static final class ActiveIntervals {
+        private long[] starts = new long[16];
+        private long[] ends = new long[16];
+        private int[] owners = new int[16];
+        private int size;
+
+        void add(long start, long end, int owner) {
+            if (size == starts.length) {
+                expire(start);
+            }
+            if (size * 4 > starts.length * 3) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+                ends = Arrays.copyOf(ends, ends.length * 2);
+                owners = Arrays.copyOf(owners, owners.length * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            owners[size] = owner;
+            size++;
+        }
+
+        void expire(long start) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (ends[i] > start) {
+                    starts[kept] = starts[i];
+                    ends[kept] = ends[i];
+                    owners[kept] = owners[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+
+    private static final class OccurrenceContinuation {
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final long changeCount;
+        private PriorityQueue<OccurrenceCursor> series;
+
+        private OccurrenceContinuation(LocalDate startDate, LocalDate endDate, long changeCount,
+                                       PriorityQueue<OccurrenceCursor> series) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.changeCount = changeCount;
+            this.series = series;
+        }
+
+        PriorityQueue<OccurrenceCursor> take(long currentChangeCount) {
+            PriorityQueue<OccurrenceCursor> taken = currentChangeCount == changeCount ? series : null;
+            series = null;
+            return taken;
+        }
+    }
+
+    private static final class VisitedOccurrence {
+        private final EventOccurrence occurrence;
+        private final RecurrenceRule rule;
+        private final Integer reminderMinutes;
+
+        private VisitedOccurrence(EventOccurrence occurrence, RecurrenceRule rule, Integer reminderMinutes) {
+            this.occurrence = occurrence;
+            this.rule = rule;
+            this.reminderMinutes = reminderMinutes;
+        }
+    }
+
+    private static final class TextIndexes {
+        private final TextIndex titles = new TextIndex();
+        private final TextIndex descriptions = new TextIndex();
+        private final TitleIndex prefixes = new TitleIndex();
+
+        private void add(Event event) {
+            add(event.getId(), event.getTitle(), event.getDescription());
+        }
+
+        private void add(int id, String title, String description) {
+            prefixes.add(title);
+            titles.put(id, title);
+            descriptions.put(id, description);
+        }
+
+        private void remove(Event event) {
+            prefixes.remove(event.getTitle());
+            titles.remove(event.getId(), event.getTitle());
+            descriptions.remove(event.getId(), event.getDescription());
+        }
+    }
+
+    public interface OccurrenceVisitor {
+        void visit(EventOccurrence occurrence, RecurrenceRule rule, Integer reminderMinutes) throws IOException;
+    }
+
+    public interface ChangeListener {
+        void eventChanged(int eventId);
+
+        void storeReloaded();
+    }
+}
@@ -0,0 +1,503 @@
+package com.calendarapp;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class IcsImporter {
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int REPORTED_CONFLICT_LIMIT = 50;
+
+    private IcsImporter() {
+    }
+
+    public static ImportReport importFile(Path file, EventStore store) throws IOException {
+        return importFile(file, store, DEFAULT_BATCH_SIZE);
+    }
+
+    public static ImportReport importFile(Path file, EventStore store, int batchSize) throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        ImportReport report = new ImportReport();
+        MutationBatch batch = new MutationBatch();
+        SeriesOverrides series = new SeriesOverrides();
+        int[] imported = new int[Math.min(batchSize, 1024)];
+        int importedCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            VEvent current = null;
+            boolean inAlarm = false;
+            String folded = reader.readLine();
+            while (folded != null) {
+                StringBuilder line = new StringBuilder(folded);
+                String next = reader.readLine();
+                while (next != null && !next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+                    line.append(next, 1, next.length());
+                    next = reader.readLine();
+                }
+                folded = next;
+
+                Property property = Property.parse(line.toString());
+                if (property == null) {
+                    continue;
+                }
+                if (property.name.equals("BEGIN") && property.value.equalsIgnoreCase("VEVENT")) {
+                    current = new VEvent();
+                    inAlarm = false;
+                } else if (current == null) {
+                    continue;
+                } else if (property.name.equals("BEGIN") && property.value.equalsIgnoreCase("VALARM")) {
+                    inAlarm = true;
+                } else if (property.name.equals("END") && property.value.equalsIgnoreCase("VALARM")) {
+                    inAlarm = false;
+                } else if (property.name.equals("END") && property.value.equalsIgnoreCase("VEVENT")) {
+                    if (!current.addTo(batch, report, series)) {
+                        report.skippedEvents++;
+                    }
+                    current = null;
+                    if (batch.size() >= batchSize) {
+                        int[] created = store.apply(batch);
+                        series.batchApplied(created, store);
+                        imported = append(imported, importedCount, created);
+                        importedCount += created.length;
+                        batch.clear();
+                    }
+                } else if (inAlarm) {
+                    current.readAlarm(property);
+                } else {
+                    current.read(property);
+                }
+            }
+        } catch (IOException ex) {
+            if (importedCount == 0) {
+                throw ex;
+            }
+            throw new IOException("Import stopped after " + importedCount + " events were added: "
+                    + ex.getMessage(), ex);
+        }
+        if (!batch.isEmpty()) {
+            int[] created = store.apply(batch);
+            series.batchApplied(created, store);
+            imported = append(imported, importedCount, created);
+            importedCount += created.length;
+        }
+        report.imported = importedCount;
+        List<MutationBatch.Conflict> conflicts = store.findConflicts(Arrays.copyOf(imported, importedCount));
+        report.conflictCount = conflicts.size();
+        report.conflicts = new ArrayList<>(
+                conflicts.subList(0, Math.min(conflicts.size(), REPORTED_CONFLICT_LIMIT)));
+        return report;
+    }
+
+    private static int[] append(int[] target, int size, int[] values) {
+        if (size + values.length > target.length) {
+            target = Arrays.copyOf(target, Math.max(target.length * 2, size + values.length));
+        }
+        System.arraycopy(values, 0, target, size, values.length);
+        return target;
+    }
+
+    private static final class SeriesOverrides {
+        private final Map<String, Integer> masterIds = new HashMap<>();
+        private final Map<String, Integer> queuedMasters = new HashMap<>();
+        private final Map<String, List<LocalDate>> earlyDates = new HashMap<>();
+        private final Map<String, List<LocalDate>> lateDates = new HashMap<>();
+
+        List<LocalDate> takeEarlyDates(String uid) {
+            List<LocalDate> dates = earlyDates.remove(uid);
+            return dates == null ? Collections.emptyList() : dates;
+        }
+
+        void masterQueued(String uid, int createIndex) {
+            queuedMasters.put(uid, createIndex);
+        }
+
+        void override(String uid, LocalDate date) {
+            Map<String, List<LocalDate>> target = masterIds.containsKey(uid) || queuedMasters.containsKey(uid)
+                    ? lateDates
+                    : earlyDates;
+            target.computeIfAbsent(uid, key -> new ArrayList<>()).add(date);
+        }
+
+        void batchApplied(int[] created, EventStore store) {
+            for (Map.Entry<String, Integer> entry : queuedMasters.entrySet()) {
+                masterIds.put(entry.getKey(), created[entry.getValue()]);
+            }
+            queuedMasters.clear();
+            for (Map.Entry<String, List<LocalDate>> entry : lateDates.entrySet()) {
+                int masterId = masterIds.get(entry.getKey());
+                store.findRecurrence(masterId).ifPresent(rule -> {
+                    List<LocalDate> dates = rule.getExceptionDates();
+                    dates.addAll(entry.getValue());
+                    store.setRecurrence(rule.withExceptionDates(dates));
+                });
+            }
+            lateDates.clear();
+        }
+    }
+
+    private static final class Property {
+        private final String name;
+        private final String parameters;
+        private final String value;
+
+        private Property(String name, String parameters, String value) {
+            this.name = name;
+            this.parameters = parameters;
+            this.value = value;
+        }
+
+        static Property parse(String line) {
+            boolean inQuotes = false;
+            for (int i = 0; i < line.length(); i++) {
+                char ch = line.charAt(i);
+                if (ch == '"') {
+                    inQuotes = !inQuotes;
+                } else if (ch == ':' && !inQuotes) {
+                    String head = line.substring(0, i);
+                    int semicolon = head.indexOf(';');
+                    String name = (semicolon < 0 ? head : head.substring(0, semicolon)).trim().toUpperCase();
+                    String parameters = semicolon < 0 ? "" : head.substring(semicolon + 1);
+                    return new Property(name, parameters, line.substring(i + 1));
+                }
+            }
+            return null;
+        }
+
+        String parameter(String key) {
+            for (String part : parameters.split(";")) {
+                int equals = part.indexOf('=');
+                if (equals > 0 && part.substring(0, equals).trim().equalsIgnoreCase(key)) {
+                    String value = part.substring(equals + 1).trim();
+                    return value.startsWith("\"") && value.endsWith("\"") && value.length() > 1
+                            ? value.substring(1, value.length() - 1)
+                            : value;
+                }
+            }
+            return null;
+        }
+
+        boolean isDateOnly() {
+            return "DATE".equalsIgnoreCase(parameter("VALUE")) || value.trim().length() == 8;
+        }
+
+        LocalDateTime toLocalDateTime() {
+            String raw = value.trim();
+            if (isDateOnly()) {
+                return parseDate(raw).atStartOfDay();
+            }
+            boolean utc = raw.endsWith("Z") || raw.endsWith("z");
+            String local = utc ? raw.substring(0, raw.length() - 1) : raw;
+            if (local.length() != 15 || Character.toUpperCase(local.charAt(8)) != 'T') {
+                throw new DateTimeException("Invalid date-time: " + raw);
+            }
+            LocalDateTime parsed = parseDate(local).atTime(
+                    digits(local, 9, 11), digits(local, 11, 13), digits(local, 13, 15));
+            String zone = parameter("TZID");
+            if (utc) {
+                return parsed.atOffset(ZoneOffset.UTC).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+            if (zone != null) {
+                try {
+                    return parsed.atZone(ZoneId.of(zone)).withZoneSameInstant(ZoneId.systemDefault())
+                            .toLocalDateTime();
+                } catch (DateTimeException ex) {
+                    // unknown or custom VTIMEZONE ids are imported as floating local time
+                }
+            }
+            return parsed;
+        }
+    }
+
+    private static LocalDate parseDate(String raw) {
+        if (raw.length() < 8) {
+            throw new DateTimeException("Invalid date: " + raw);
+        }
+        return LocalDate.of(digits(raw, 0, 4), digits(raw, 4, 6), digits(raw, 6, 8));
+    }
+
+    private static int digits(String raw, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char ch = raw.charAt(i);
+            if (ch < '0' || ch > '9') {
+                throw new DateTimeException("Invalid date-time: " + raw);
+            }
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+    private static final class VEvent {
+        private String summary = "";
+        private String description = "";
+        private Property start;
+        private Property end;
+        private Duration duration;
+        private String rrule;
+        private final List<Property> exceptionDates = new ArrayList<>();
+        private Integer reminderMinutes;
+        private String uid;
+        private Property recurrenceId;
+        private boolean cancelled;
+
+        void read(Property property) {
+            switch (property.name) {
+                case "SUMMARY" -> summary = unescape(property.value);
+                case "DESCRIPTION" -> description = unescape(property.value);
+                case "DTSTART" -> start = property;
+                case "DTEND" -> end = property;
+                case "DURATION" -> duration = parseDuration(property.value);
+                case "RRULE" -> rrule = property.value;
+                case "EXDATE" -> exceptionDates.add(property);
+                case "UID" -> uid = property.value.trim();
+                case "RECURRENCE-ID" -> recurrenceId = property;
+                case "STATUS" -> cancelled = property.value.trim().equalsIgnoreCase("CANCELLED");
+                default -> {
+                }
+            }
+        }
+
+        void readAlarm(Property property) {
+            String related = property.parameter("RELATED");
+            if (!property.name.equals("TRIGGER") || (related != null && !related.equalsIgnoreCase("START"))) {
+                return;
+            }
+            Duration trigger = parseDuration(property.value);
+            if (trigger != null && trigger.isNegative() && reminderMinutes == null) {
+                reminderMinutes = (int) Math.min(Integer.MAX_VALUE, trigger.negated().toMinutes());
+            }
+        }
+
+        boolean addTo(MutationBatch batch, ImportReport report, SeriesOverrides series) {
+            try {
+                LocalDate overriddenDate = recurrenceId == null ? null : recurrenceId.toLocalDateTime().toLocalDate();
+                if (cancelled) {
+                    if (overriddenDate != null && uid != null) {
+                        series.override(uid, overriddenDate);
+                    }
+                    return true;
+                }
+                if (start == null) {
+                    return false;
+                }
+                LocalDateTime startTime = start.toLocalDateTime();
+                LocalDateTime endTime;
+                if (end != null) {
+                    endTime = end.toLocalDateTime();
+                } else if (duration != null) {
+                    endTime = startTime.plus(duration);
+                } else {
+                    endTime = start.isDateOnly() ? startTime.plusDays(1) : startTime;
+                }
+                if (endTime.isBefore(startTime)) {
+                    endTime = startTime;
+                }
+                if (overriddenDate != null) {
+                    batch.create(summary, description, startTime, endTime, null, reminderMinutes);
+                    if (uid != null) {
+                        series.override(uid, overriddenDate);
+                    }
+                    return true;
+                }
+                RecurrenceRule rule = null;
+                if (rrule != null) {
+                    rule = parseRule(rrule, startTime);
+                    if (rule == null) {
+                        report.unsupportedRules++;
+                    } else {
+                        List<LocalDate> dates = parseExceptionDates();
+                        if (uid != null) {
+                            dates.addAll(series.takeEarlyDates(uid));
+                        }
+                        if (!dates.isEmpty()) {
+                            rule = rule.withExceptionDates(dates);
+                        }
+                    }
+                }
+                int createIndex = batch.create(summary, description, startTime, endTime, rule, reminderMinutes);
+                if (rule != null && uid != null) {
+                    series.masterQueued(uid, createIndex);
+                }
+                return true;
+            } catch (DateTimeException | IllegalArgumentException ex) {
+                return false;
+            }
+        }
+
+        private List<LocalDate> parseExceptionDates() {
+            List<LocalDate> dates = new ArrayList<>();
+            for (Property property : exceptionDates) {
+                for (String value : property.value.split(",")) {
+                    if (!value.isBlank()) {
+                        dates.add(new Property(property.name, property.parameters, value).toLocalDateTime()
+                                .toLocalDate());
+                    }
+                }
+            }
+            return dates;
+        }
+
+        private static RecurrenceRule parseRule(String value, LocalDateTime start) {
+            RecurrenceUnit unit = null;
+            int interval = 1;
+            int count = 0;
+            LocalDate until = null;
+            String byDay = null;
+            String byMonthDay = null;
+            String byMonth = null;
+            try {
+                for (String part : value.split(";")) {
+                    int equals = part.indexOf('=');
+                    if (equals < 0) {
+                        continue;
+                    }
+                    String key = part.substring(0, equals).trim().toUpperCase();
+                    String raw = part.substring(equals + 1).trim();
+                    switch (key) {
+                        case "FREQ" -> {
+                            switch (raw.toUpperCase()) {
+                                case "DAILY" -> unit = RecurrenceUnit.DAY;
+                                case "WEEKLY" -> unit = RecurrenceUnit.WEEK;
+                                case "MONTHLY" -> unit = RecurrenceUnit.MONTH;
+                                case "YEARLY" -> unit = RecurrenceUnit.YEAR;
+                                default -> {
+                                    return null;
+                                }
+                            }
+                        }
+                        case "INTERVAL" -> interval = Integer.parseInt(raw);
+                        case "COUNT" -> count = Integer.parseInt(raw);
+                        case "UNTIL" -> until = new Property("UNTIL", "", raw).toLocalDateTime().toLocalDate();
+                        case "BYDAY" -> byDay = raw.toUpperCase();
+                        case "BYMONTHDAY" -> byMonthDay = raw;
+                        case "BYMONTH" -> byMonth = raw;
+                        case "WKST" -> {
+                        }
+                        default -> {
+                            return null;
+                        }
+                    }
+                }
+            } catch (DateTimeException | IllegalArgumentException ex) {
+                return null;
+            }
+            if (unit == null || interval <= 0 || count < 0) {
+                return null;
+            }
+            if (byMonth != null && (unit != RecurrenceUnit.YEAR
+                    || !byMonth.equals(Integer.toString(start.getMonthValue())))) {
+                return null;
+            }
+            RecurrenceRule rule = new RecurrenceRule(0, interval, unit, count, until);
+            try {
+                if (byDay != null && byMonthDay != null) {
+                    return null;
+                }
+                if (byMonthDay != null) {
+                    if (byMonthDay.equals("-1") && (unit == RecurrenceUnit.MONTH || byMonth != null)) {
+                        return rule.withLastDayOfMonth();
+                    }
+                    boolean startDay = byMonthDay.equals(Integer.toString(start.getDayOfMonth()));
+                    return startDay && (unit == RecurrenceUnit.MONTH || unit == RecurrenceUnit.YEAR) ? rule : null;
+                }
+                if (byDay == null) {
+                    return rule;
+                }
+                String[] days = byDay.split(",");
+                if (unit == RecurrenceUnit.WEEK) {
+                    Set<DayOfWeek> weekdays = EnumSet.noneOf(DayOfWeek.class);
+                    for (String day : days) {
+                        weekdays.add(RecurrenceRule.weekdayOf(day.trim()));
+                    }
+                    return rule.withWeekdays(weekdays);
+                }
+                boolean monthScoped = unit == RecurrenceUnit.MONTH || byMonth != null;
+                String day = days[0].trim();
+                if (!monthScoped || days.length != 1 || day.length() < 3) {
+                    return null;
+                }
+                String ordinal = day.substring(0, day.length() - 2);
+                return rule.withNthWeekday(Integer.parseInt(ordinal.startsWith("+") ? ordinal.substring(1) : ordinal),
+                        RecurrenceRule.weekdayOf(day.substring(day.length() - 2)));
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+        }
+
+        private static Duration parseDuration(String value) {
+            try {
+                return Duration.parse(value.trim());
+            } catch (DateTimeException ex) {
+                return null;
+            }
+        }
+
+        private static String unescape(String value) {
+            StringBuilder result = new StringBuilder(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                if (ch == '\\' && i + 1 < value.length()) {
+                    char escaped = value.charAt(++i);
+                    result.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+                } else {
+                    result.append(ch);
+                }
+            }
+            return result.toString();
+        }
+    }
+
+    public static final class ImportReport {
+        private int imported;
+        private int skippedEvents;
+        private int unsupportedRules;
+        private int conflictCount;
+        private List<MutationBatch.Conflict> conflicts = Collections.emptyList();
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getSkippedEvents() {
+            return skippedEvents;
+        }
+
+        public int getUnsupportedRules() {
+            return unsupportedRules;
+        }
+
+        public int getConflictCount() {
+            return conflictCount;
+        }
+
+        public List<MutationBatch.Conflict> getConflicts() {
+            return Collections.unmodifiableList(conflicts);
+        }
+
+        @Override
+        public String toString() {
+            return "Events imported: " + imported
+                    + ", skipped: " + skippedEvents
+                    + ", unsupported recurrence rules: " + unsupportedRules
+                    + ", conflicts: " + conflictCount;
+        }
+    }
+}
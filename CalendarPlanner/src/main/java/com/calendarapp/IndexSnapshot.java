@@ -0,0 +1,76 @@
+package com.calendarapp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+public final class IndexSnapshot {
+    public static final String FILE_NAME = "index.bin";
+    private static final int MAGIC = 0x43414c49;
+    private static final int FORMAT_VERSION = 2;
+
+    private IndexSnapshot() {
+    }
+
+    public static byte[] encode(long dataLength, long dataChecksum, TextIndex titles, TextIndex descriptions,
+                                TitleIndex prefixes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CRC32 checksum = new CRC32();
+        DataOutputStream output = new DataOutputStream(new CheckedOutputStream(bytes, checksum));
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeLong(dataLength);
+        output.writeLong(dataChecksum);
+        titles.writeTo(output);
+        descriptions.writeTo(output);
+        prefixes.writeTo(output);
+        output.flush();
+        new DataOutputStream(bytes).writeLong(checksum.getValue());
+        return bytes.toByteArray();
+    }
+
+    public static void write(Path file, byte[] encoded) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tempFile, encoded);
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static boolean read(Path file, long dataLength, long dataChecksum, TextIndex titles,
+                               TextIndex descriptions, TitleIndex prefixes) {
+        if (dataLength < 0 || !Files.exists(file)) {
+            return false;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            if (bytes.length < Long.BYTES) {
+                return false;
+            }
+            int bodyLength = bytes.length - Long.BYTES;
+            CRC32 checksum = new CRC32();
+            checksum.update(bytes, 0, bodyLength);
+            if (ByteBuffer.wrap(bytes, bodyLength, Long.BYTES).getLong() != checksum.getValue()) {
+                return false;
+            }
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes, 0, bodyLength));
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION
+                    || input.readLong() != dataLength || input.readLong() != dataChecksum) {
+                return false;
+            }
+            titles.readFrom(input);
+            descriptions.readFrom(input);
+            prefixes.readFrom(input);
+            return input.available() == 0;
+        } catch (IOException | RuntimeException ex) {
+            // a damaged snapshot is simply rebuilt from the data files
+            return false;
+        }
+    }
+}
@@ -7,12 +7,12 @@ import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
 
@@ -24,11 +24,24 @@ public class Main {
     private static final DateTimeFormatter FLEX_DATE_TIME_SPACE_FORMAT = DateTimeFormatter.ofPattern("yyyy-M-d H:mm");
     private static final DateTimeFormatter FLEX_DATE_ONLY_FORMAT = DateTimeFormatter.ofPattern("yyyy-M-d");
     private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final int SUGGESTED_SLOT_COUNT = 3;
+    private static final int SLOT_SEARCH_DAYS = 30;
+    private static final int UP_NEXT_COUNT = 5;
 
     public static void main(String[] args) throws IOException {
-        EventStore store = new EventStore(Paths.get("data"));
-        store.load();
-        showStartupReminder(store);
+        List<Path> directories = new ArrayList<>();
+        for (String arg : args) {
+            directories.add(Paths.get(arg));
+        }
+        if (directories.isEmpty()) {
+            directories.add(Paths.get("data"));
+        }
+        CalendarOverlay calendars = CalendarOverlay.open(directories);
+        EventStore store = calendars.getPrimary();
+        AsyncStoreWriter storeWriter = new AsyncStoreWriter(store,
+                ex -> System.out.println("\nSave failed: " + ex.getMessage()));
+        ReminderScheduler reminderScheduler = new ReminderScheduler(store, Main::showReminder);
+        reminderScheduler.start();
 
         Scanner scanner = new Scanner(System.in);
         boolean running = true;
@@ -43,37 +56,67 @@ public class Main {
             System.out.println("7. Event statistics");
             System.out.println("8. Backup data");
             System.out.println("9. Restore data");
+            System.out.println("10. Sync with another data directory");
+            System.out.println("11. Check availability");
+            System.out.println("12. Find a slot across resources");
+            if (calendars.size() > 1) {
+                System.out.println("13. Show or hide calendars");
+            }
+            System.out.println("14. Import iCalendar file");
+            System.out.println("15. Export date range");
+            System.out.println("16. Skip or restore one occurrence");
             System.out.println("0. Exit");
             System.out.print("Choose an option: ");
             String choice = scanner.nextLine().trim();
 
             switch (choice) {
                 case "1":
-                    createEvent(scanner, store);
+                    createEvent(scanner, store, storeWriter);
                     break;
                 case "2":
-                    updateEvent(scanner, store);
+                    updateEvent(scanner, store, storeWriter);
                     break;
                 case "3":
-                    deleteEvent(scanner, store);
+                    deleteEvent(scanner, store, storeWriter);
                     break;
                 case "4":
-                    viewEvents(scanner, store);
+                    viewEvents(scanner, calendars);
                     break;
                 case "5":
-                    searchEvents(scanner, store);
+                    searchEvents(scanner, calendars);
                     break;
                 case "6":
-                    advancedSearch(scanner, store);
+                    advancedSearch(scanner, calendars);
                     break;
                 case "7":
-                    showStatistics(store);
+                    showStatistics(calendars);
                     break;
                 case "8":
-                    backup(scanner, store);
+                    backup(scanner, store, storeWriter);
                     break;
                 case "9":
-                    restore(scanner, store);
+                    restore(scanner, store, storeWriter);
+                    break;
+                case "10":
+                    syncWithDirectory(scanner, store, storeWriter);
+                    break;
+                case "11":
+                    checkAvailability(scanner, store);
+                    break;
+                case "12":
+                    findResourceSlot(scanner, storeWriter);
+                    break;
+                case "13":
+                    toggleCalendars(scanner, calendars);
+                    break;
+                case "14":
+                    importIcs(scanner, store, storeWriter);
+                    break;
+                case "15":
+                    exportRange(scanner, store);
+                    break;
+                case "16":
+                    toggleOccurrence(scanner, store, storeWriter);
                     break;
                 case "0":
                     running = false;
@@ -83,11 +126,13 @@ public class Main {
                     break;
             }
         }
-        saveStore(store);
+        reminderScheduler.close();
+        closeStore(storeWriter);
+        calendars.close();
         System.out.println("Goodbye!");
     }
 
-    private static void createEvent(Scanner scanner, EventStore store) throws IOException {
+    private static void createEvent(Scanner scanner, EventStore store, AsyncStoreWriter storeWriter) {
         if (!confirmAction(scanner, "Create event")) {
             return;
         }
@@ -105,6 +150,7 @@ public class Main {
         Event candidate = new Event(-1, title, description, start, end);
         if (store.hasConflict(-1, candidate, candidateRule)) {
             System.out.println("Cannot create event: it conflicts with an existing event.");
+            printSuggestedSlots(store, -1, start, end, candidateRule);
             return;
         }
 
@@ -114,12 +160,11 @@ public class Main {
         }
         Integer reminderMinutes = promptReminderMinutes(scanner, store, null);
         store.setReminderMinutes(event.getId(), reminderMinutes);
-        if (saveStore(store)) {
-            System.out.println("Event created with ID " + event.getId());
-        }
+        storeWriter.requestSave();
+        System.out.println("Event created with ID " + event.getId());
     }
 
-    private static void updateEvent(Scanner scanner, EventStore store) throws IOException {
+    private static void updateEvent(Scanner scanner, EventStore store, AsyncStoreWriter storeWriter) {
         if (!confirmAction(scanner, "Update event")) {
             return;
         }
@@ -171,13 +216,11 @@ public class Main {
         Event candidate = new Event(event.getId(), newTitle, newDescription, newStart, newEnd);
         if (store.hasConflict(event.getId(), candidate, candidateRule)) {
             System.out.println("Cannot update event: it conflicts with an existing event.");
+            printSuggestedSlots(store, event.getId(), newStart, newEnd, candidateRule);
             return;
         }
 
-        event.setTitle(newTitle);
-        event.setDescription(newDescription);
-        event.setStart(newStart);
-        event.setEnd(newEnd);
+        store.updateEvent(event.getId(), newTitle, newDescription, newStart, newEnd);
         if (recurrenceInput != null) {
             store.setRecurrence(buildRecurrenceRule(event.getId(), recurrenceInput));
         } else if (existingRule == null) {
@@ -185,12 +228,30 @@ public class Main {
         }
         Integer reminderMinutes = promptReminderMinutes(scanner, store, event.getId());
         store.setReminderMinutes(event.getId(), reminderMinutes);
-        if (saveStore(store)) {
-            System.out.println("Event updated.");
+        storeWriter.requestSave();
+        System.out.println("Event updated.");
+    }
+
+    private static void printSuggestedSlots(EventStore store, int ignoreEventId, LocalDateTime start,
+                                            LocalDateTime end, RecurrenceRule rule) {
+        Duration duration = Duration.between(start, end);
+        if (duration.toMinutes() <= 0) {
+            return;
+        }
+        List<TimeSlot> slots = store.findFreeSlots(ignoreEventId, duration, rule,
+                start, start.plusDays(SLOT_SEARCH_DAYS), SUGGESTED_SLOT_COUNT);
+        if (slots.isEmpty()) {
+            System.out.println("No free slot found in the next " + SLOT_SEARCH_DAYS + " days.");
+            return;
+        }
+        System.out.println("Next free slots:");
+        for (TimeSlot slot : slots) {
+            System.out.println("  " + slot.getStart().format(DATE_TIME_FORMAT) + " - "
+                    + slot.getEnd().format(DATE_TIME_FORMAT));
         }
     }
 
-    private static void deleteEvent(Scanner scanner, EventStore store) throws IOException {
+    private static void deleteEvent(Scanner scanner, EventStore store, AsyncStoreWriter storeWriter) {
         if (!confirmAction(scanner, "Delete event")) {
             return;
         }
@@ -200,12 +261,11 @@ public class Main {
             return;
         }
         store.deleteEvent(id);
-        if (saveStore(store)) {
-            System.out.println("Event deleted.");
-        }
+        storeWriter.requestSave();
+        System.out.println("Event deleted.");
     }
 
-    private static void viewEvents(Scanner scanner, EventStore store) {
+    private static void viewEvents(Scanner scanner, CalendarOverlay calendars) {
         if (!confirmAction(scanner, "View events")) {
             return;
         }
@@ -219,16 +279,16 @@ public class Main {
 
         switch (option) {
             case "1":
-                viewMonthCalendar(scanner, store);
+                viewMonthCalendar(scanner, calendars);
                 break;
             case "2":
-                viewDay(scanner, store);
+                viewDay(scanner, calendars);
                 break;
             case "3":
-                viewWeek(scanner, store);
+                viewWeek(scanner, calendars);
                 break;
             case "4":
-                viewMonthList(scanner, store);
+                viewMonthList(scanner, calendars);
                 break;
             default:
                 System.out.println("Invalid option.");
@@ -236,46 +296,41 @@ public class Main {
         }
     }
 
-    private static void viewDay(Scanner scanner, EventStore store) {
+    private static void viewDay(Scanner scanner, CalendarOverlay calendars) {
         LocalDate date = promptDate(scanner, "Date (yyyy-MM-dd): ");
-        Map<LocalDate, List<EventOccurrence>> occurrences = store.occurrencesBetween(date, date);
+        DailyOccurrences occurrences = calendars.occurrencesBetween(date, date);
         System.out.println("=== Day of " + date + " ===");
-        printOccurrencesForDate(occurrences, date);
+        printOccurrencesForDate(occurrences.forDay(0));
     }
 
-    private static void viewWeek(Scanner scanner, EventStore store) {
+    private static void viewWeek(Scanner scanner, CalendarOverlay calendars) {
         LocalDate date = promptDate(scanner, "Any date within week (yyyy-MM-dd): ");
         LocalDate startOfWeek = date.with(DayOfWeek.SUNDAY);
         LocalDate endOfWeek = startOfWeek.plusDays(6);
-        Map<LocalDate, List<EventOccurrence>> occurrences = store.occurrencesBetween(startOfWeek, endOfWeek);
+        DailyOccurrences occurrences = calendars.occurrencesBetween(startOfWeek, endOfWeek);
         System.out.println("=== Week of " + startOfWeek + " ===");
         for (int i = 0; i < 7; i++) {
-            LocalDate current = startOfWeek.plusDays(i);
+            LocalDate current = occurrences.dateAt(i);
             System.out.print(current.getDayOfWeek().toString().substring(0, 3) + " " +
                     String.format("%02d", current.getDayOfMonth()) + ": ");
-            printOccurrencesForDateInline(occurrences, current);
+            printOccurrencesForDateInline(occurrences.forDay(i));
         }
     }
 
-    private static void viewMonthList(Scanner scanner, EventStore store) {
+    private static void viewMonthList(Scanner scanner, CalendarOverlay calendars) {
         YearMonth month = promptMonth(scanner);
         LocalDate start = month.atDay(1);
         LocalDate end = month.atEndOfMonth();
-        Map<LocalDate, List<EventOccurrence>> occurrences = store.occurrencesBetween(start, end);
+        DailyOccurrences occurrences = calendars.occurrencesBetween(start, end);
         System.out.println("=== " + month.getMonth() + " " + month.getYear() + " ===");
-        LocalDate current = start;
-        while (!current.isAfter(end)) {
-            System.out.print(current + ": ");
-            printOccurrencesForDateInline(occurrences, current);
-            current = current.plusDays(1);
-        }
+        printDays(occurrences);
     }
 
-    private static void viewMonthCalendar(Scanner scanner, EventStore store) {
+    private static void viewMonthCalendar(Scanner scanner, CalendarOverlay calendars) {
         YearMonth month = promptMonth(scanner);
         LocalDate start = month.atDay(1);
         LocalDate end = month.atEndOfMonth();
-        Map<LocalDate, List<EventOccurrence>> occurrences = store.occurrencesBetween(start, end);
+        DailyOccurrences occurrences = calendars.occurrencesBetween(start, end);
         System.out.println(month.getMonth() + " " + month.getYear());
         System.out.println("Su Mo Tu We Th Fr Sa");
         int startOffset = start.getDayOfWeek().getValue() % 7;
@@ -283,8 +338,7 @@ public class Main {
             System.out.print("   ");
         }
         for (int day = 1; day <= month.lengthOfMonth(); day++) {
-            LocalDate current = month.atDay(day);
-            boolean hasEvent = occurrences.containsKey(current);
+            boolean hasEvent = !occurrences.forDay(day - 1).isEmpty();
             String marker = hasEvent ? "*" : " ";
             System.out.printf("%2d%s", day, marker);
             if ((day + startOffset) % 7 == 0) {
@@ -294,31 +348,26 @@ public class Main {
             }
         }
         System.out.println();
-        for (Map.Entry<LocalDate, List<EventOccurrence>> entry : occurrences.entrySet()) {
-            for (EventOccurrence occurrence : entry.getValue()) {
-                System.out.println("* " + entry.getKey() + ": " + occurrence.getTitle() +
+        for (int day = 0; day < occurrences.dayCount(); day++) {
+            for (EventOccurrence occurrence : occurrences.forDay(day)) {
+                System.out.println("* " + occurrences.dateAt(day) + ": " + displayTitle(occurrence) +
                         " (" + occurrence.getStart().format(TIME_FORMAT) + ")");
             }
         }
     }
 
-    private static void searchEvents(Scanner scanner, EventStore store) {
+    private static void searchEvents(Scanner scanner, CalendarOverlay calendars) {
         if (!confirmAction(scanner, "Search events")) {
             return;
         }
         LocalDate start = promptDate(scanner, "Start date (yyyy-MM-dd): ");
         LocalDate end = promptDate(scanner, "End date (yyyy-MM-dd): ");
-        Map<LocalDate, List<EventOccurrence>> occurrences = store.occurrencesBetween(start, end);
+        DailyOccurrences occurrences = calendars.occurrencesBetween(start, end);
         System.out.println("=== Events between " + start + " and " + end + " ===");
-        LocalDate current = start;
-        while (!current.isAfter(end)) {
-            System.out.print(current + ": ");
-            printOccurrencesForDateInline(occurrences, current);
-            current = current.plusDays(1);
-        }
+        printDays(occurrences);
     }
 
-    private static void advancedSearch(Scanner scanner, EventStore store) {
+    private static void advancedSearch(Scanner scanner, CalendarOverlay calendars) {
         if (!confirmAction(scanner, "Advanced search")) {
             return;
         }
@@ -330,51 +379,142 @@ public class Main {
         String descriptionKeyword = scanner.nextLine().trim().toLowerCase();
         System.out.print("Only recurring events? (y/n): ");
         boolean recurringOnly = scanner.nextLine().trim().equalsIgnoreCase("y");
+        System.out.print("Only events with reminders? (y/n): ");
+        boolean remindersOnly = scanner.nextLine().trim().equalsIgnoreCase("y");
+        System.out.print("Latest first? (y/n): ");
+        boolean latestFirst = scanner.nextLine().trim().equalsIgnoreCase("y");
+        System.out.print("Maximum results (leave blank for all): ");
+        String limitInput = scanner.nextLine().trim();
+        if (end.isBefore(start)) {
+            System.out.println("End date must be after start date.");
+            return;
+        }
 
-        Map<LocalDate, List<EventOccurrence>> occurrences = store.occurrencesBetween(start, end);
-        List<EventOccurrence> flattened = new ArrayList<>();
-        for (List<EventOccurrence> dayOccurrences : occurrences.values()) {
-            flattened.addAll(dayOccurrences);
+        Query query = Query.between(start, end)
+                .withTitle(titleKeyword)
+                .withDescription(descriptionKeyword)
+                .withRecurringOnly(recurringOnly)
+                .withRemindersOnly(remindersOnly)
+                .withSort(latestFirst ? Query.Sort.LATEST_FIRST : Query.Sort.EARLIEST_FIRST);
+        if (!limitInput.isEmpty()) {
+            try {
+                query = query.withLimit(Integer.parseInt(limitInput));
+            } catch (IllegalArgumentException ex) {
+                System.out.println("Maximum results must be a positive number.");
+                return;
+            }
         }
-        flattened.sort(Comparator.comparing(EventOccurrence::getStart));
 
         System.out.println("=== Filtered results ===");
-        for (EventOccurrence occurrence : flattened) {
-            Event event = store.findEvent(occurrence.getEventId()).orElse(null);
-            if (event == null) {
-                continue;
+        for (EventOccurrence occurrence : calendars.search(query)) {
+            boolean recurring = occurrence.isRecurring();
+            System.out.println(occurrence.getStart().toLocalDate() + ": " + displayTitle(occurrence)
+                    + " (" + occurrence.getStart().format(TIME_FORMAT)
+                    + " - " + occurrence.getEnd().format(TIME_FORMAT) + ")"
+                    + (recurring ? " [Recurring]" : ""));
+        }
+    }
+
+    private static void toggleCalendars(Scanner scanner, CalendarOverlay calendars) {
+        for (int i = 0; i < calendars.size(); i++) {
+            System.out.println((i + 1) + ". " + calendars.getName(i)
+                    + (calendars.isEnabled(i) ? " [shown]" : " [hidden]"));
+        }
+        System.out.print("Calendar number to show/hide: ");
+        String input = scanner.nextLine().trim();
+        try {
+            int index = Integer.parseInt(input) - 1;
+            if (index < 0 || index >= calendars.size()) {
+                System.out.println("Invalid calendar number.");
+                return;
             }
-            if (!titleKeyword.isEmpty() && !event.getTitle().toLowerCase().contains(titleKeyword)) {
-                continue;
+            calendars.setEnabled(index, !calendars.isEnabled(index));
+            System.out.println(calendars.getName(index) + (calendars.isEnabled(index) ? " shown." : " hidden."));
+        } catch (NumberFormatException ex) {
+            System.out.println("Invalid calendar number.");
+        }
+    }
+
+    private static void checkAvailability(Scanner scanner, EventStore store) {
+        LocalDate start = promptDate(scanner, "Start date (yyyy-MM-dd): ");
+        LocalDate end = promptDate(scanner, "End date (yyyy-MM-dd): ");
+        LocalTime from = promptTime(scanner, "From time (HH:mm): ");
+        LocalTime to = promptTime(scanner, "To time (HH:mm): ");
+        List<LocalDate> freeDays;
+        try {
+            freeDays = store.freeDays(start, end, from, to);
+        } catch (IllegalArgumentException ex) {
+            System.out.println(ex.getMessage());
+            return;
+        }
+        long dayCount = Math.max(0, end.toEpochDay() - start.toEpochDay() + 1);
+        System.out.println("=== Availability " + TIME_FORMAT.format(from) + "-" + TIME_FORMAT.format(to) + " ===");
+        System.out.println("Free on " + freeDays.size() + " of " + dayCount + " days.");
+        for (LocalDate date : freeDays) {
+            System.out.println("  " + date + " (" + date.getDayOfWeek() + ")");
+        }
+        if (dayCount > 0) {
+            double busy = store.busyPercentage(start.atStartOfDay(), end.plusDays(1).atStartOfDay());
+            System.out.println(String.format("Busy time over the whole range: %.1f%%", busy));
+        }
+    }
+
+    private static void findResourceSlot(Scanner scanner, AsyncStoreWriter storeWriter) throws IOException {
+        System.out.print("Resource data directories (comma separated): ");
+        List<Path> directories = new ArrayList<>();
+        for (String part : scanner.nextLine().split(",")) {
+            if (!part.trim().isEmpty()) {
+                directories.add(Paths.get(part.trim()));
             }
-            if (!descriptionKeyword.isEmpty()
-                    && !event.getDescription().toLowerCase().contains(descriptionKeyword)) {
-                continue;
+        }
+        if (directories.isEmpty()) {
+            System.out.println("No resources given.");
+            return;
+        }
+        LocalDateTime start = promptDateTime(scanner, "Preferred start (yyyy-MM-dd HH:mm): ");
+        LocalDateTime end = promptDateTime(scanner, "Preferred end (yyyy-MM-dd HH:mm): ");
+        Duration duration = Duration.between(start, end);
+        if (duration.toMinutes() <= 0) {
+            System.out.println("End must be after start.");
+            return;
+        }
+        storeWriter.flush();
+        try (ResourceAvailability availability = ResourceAvailability.open(directories)) {
+            TimeSlot preferred = new TimeSlot(EpochMinutes.of(start), EpochMinutes.of(end));
+            boolean[][] conflicts = availability.conflictMatrix(List.of(preferred));
+            boolean allFree = true;
+            System.out.println("=== Resources at " + start.format(DATE_TIME_FORMAT) + " ===");
+            for (int i = 0; i < directories.size(); i++) {
+                allFree &= !conflicts[i][0];
+                System.out.println("  " + directories.get(i) + ": " + (conflicts[i][0] ? "busy" : "free"));
             }
-            boolean recurring = store.findRecurrence(event.getId()).isPresent();
-            if (recurringOnly && !recurring) {
-                continue;
+            if (allFree) {
+                System.out.println("All resources are free at the preferred time.");
+                return;
+            }
+            List<TimeSlot> slots = availability.findCommonFreeSlots(duration, start,
+                    start.plusDays(SLOT_SEARCH_DAYS), SUGGESTED_SLOT_COUNT);
+            if (slots.isEmpty()) {
+                System.out.println("No common free slot in the next " + SLOT_SEARCH_DAYS + " days.");
+                return;
+            }
+            System.out.println("Common free slots:");
+            for (TimeSlot slot : slots) {
+                System.out.println("  " + slot.getStart().format(DATE_TIME_FORMAT) + " - "
+                        + slot.getEnd().format(DATE_TIME_FORMAT));
             }
-            System.out.println(occurrence.getStart().toLocalDate() + ": " + event.getTitle()
-                    + " (" + occurrence.getStart().format(TIME_FORMAT)
-                    + " - " + occurrence.getEnd().format(TIME_FORMAT) + ")"
-                    + (recurring ? " [Recurring]" : ""));
         }
     }
 
-    private static void showStatistics(EventStore store) {
-        List<Event> events = store.listEvents();
-        int totalEvents = events.size();
-        int totalRecurrences = store.listRecurrences().size();
-        int totalReminders = store.reminderCount();
+    private static void showStatistics(CalendarOverlay calendars) {
+        EventStore store = calendars.getPrimary();
+        int totalEvents = calendars.eventCount();
+        int totalRecurrences = calendars.recurrenceCount();
+        int totalReminders = calendars.reminderCount();
 
         LocalDate today = LocalDate.now();
         LocalDate rangeEnd = today.plusDays(30);
-        Map<LocalDate, List<EventOccurrence>> occurrences = store.occurrencesBetween(today, rangeEnd);
-        List<EventOccurrence> allOccurrences = new ArrayList<>();
-        for (List<EventOccurrence> dayOccurrences : occurrences.values()) {
-            allOccurrences.addAll(dayOccurrences);
-        }
+        List<EventOccurrence> allOccurrences = calendars.occurrencesBetween(today, rangeEnd).all();
 
         int upcomingCount = allOccurrences.size();
         long totalMinutes = 0;
@@ -386,7 +526,7 @@ public class Main {
             totalMinutes += duration;
             if (duration > longestMinutes) {
                 longestMinutes = duration;
-                longestTitle = occurrence.getTitle();
+                longestTitle = displayTitle(occurrence);
             }
             DayOfWeek day = occurrence.getStart().getDayOfWeek();
             dayCounts[day.getValue() % 7]++;
@@ -411,22 +551,38 @@ public class Main {
             System.out.println("Average duration: 0 minutes");
         }
         System.out.println("Longest event: " + longestTitle + " (" + longestMinutes + " minutes)");
+        List<EventOccurrence> upNext = calendars.upcoming(LocalDateTime.now(), UP_NEXT_COUNT);
+        System.out.println("Up next:");
+        if (upNext.isEmpty()) {
+            System.out.println("  No upcoming events");
+        }
+        for (EventOccurrence occurrence : upNext) {
+            System.out.println("  " + occurrence.getStart().format(DATE_TIME_FORMAT) + " " + displayTitle(occurrence));
+        }
+        LocalDate weekStart = today.minusDays(today.getDayOfWeek().getValue() - 1);
+        LocalDate monthStart = today.withDayOfMonth(1);
+        System.out.println(String.format("Busy this week: %.1f%%",
+                store.busyPercentage(weekStart.atStartOfDay(), weekStart.plusWeeks(1).atStartOfDay())));
+        System.out.println(String.format("Busy this month: %.1f%%",
+                store.busyPercentage(monthStart.atStartOfDay(), monthStart.plusMonths(1).atStartOfDay())));
     }
 
-    private static void backup(Scanner scanner, EventStore store) throws IOException {
+    private static void backup(Scanner scanner, EventStore store, AsyncStoreWriter storeWriter) throws IOException {
         if (!confirmAction(scanner, "Backup data")) {
             return;
         }
+        storeWriter.flush();
         System.out.print("Backup file path (e.g. backups/backup.txt): ");
         Path path = Paths.get(scanner.nextLine().trim());
         store.backup(path);
         System.out.println("Backup completed to " + path.toAbsolutePath());
     }
 
-    private static void restore(Scanner scanner, EventStore store) throws IOException {
+    private static void restore(Scanner scanner, EventStore store, AsyncStoreWriter storeWriter) throws IOException {
         if (!confirmAction(scanner, "Restore data")) {
             return;
         }
+        storeWriter.flush();
         System.out.print("Backup file path to restore: ");
         Path path = Paths.get(scanner.nextLine().trim());
         System.out.print("Replace existing data? (y/n): ");
@@ -435,8 +591,118 @@ public class Main {
         System.out.println("Restore completed.");
     }
 
+    private static void importIcs(Scanner scanner, EventStore store, AsyncStoreWriter storeWriter) {
+        if (!confirmAction(scanner, "Import iCalendar file")) {
+            return;
+        }
+        System.out.print("iCalendar file path (.ics): ");
+        Path path = Paths.get(scanner.nextLine().trim());
+        IcsImporter.ImportReport report;
+        try {
+            report = IcsImporter.importFile(path, store);
+        } catch (IOException ex) {
+            System.out.println("Import failed: " + ex.getMessage());
+            return;
+        } finally {
+            storeWriter.requestSave();
+        }
+        System.out.println("Import completed. " + report);
+        for (MutationBatch.Conflict conflict : report.getConflicts()) {
+            System.out.println("  " + conflict);
+        }
+        if (report.getConflictCount() > report.getConflicts().size()) {
+            System.out.println("  ... and " + (report.getConflictCount() - report.getConflicts().size()) + " more");
+        }
+    }
+
+    private static void exportRange(Scanner scanner, EventStore store) throws IOException {
+        if (!confirmAction(scanner, "Export date range")) {
+            return;
+        }
+        LocalDate start = promptDate(scanner, "Start date (yyyy-MM-dd): ");
+        LocalDate end = promptDate(scanner, "End date (yyyy-MM-dd): ");
+        if (end.isBefore(start)) {
+            System.out.println("End date must be after start date.");
+            return;
+        }
+        System.out.print("Format (ics/csv): ");
+        String formatInput = scanner.nextLine().trim();
+        CalendarExporter.Format format;
+        if (formatInput.equalsIgnoreCase("ics")) {
+            format = CalendarExporter.Format.ICS;
+        } else if (formatInput.equalsIgnoreCase("csv")) {
+            format = CalendarExporter.Format.CSV;
+        } else {
+            System.out.println("Unknown format.");
+            return;
+        }
+        System.out.print("Expand recurring events into single occurrences? (y/n): ");
+        boolean expand = scanner.nextLine().trim().equalsIgnoreCase("y");
+        System.out.print("Export file path (e.g. exports/calendar." + formatInput.toLowerCase() + "): ");
+        Path path = Paths.get(scanner.nextLine().trim());
+        int written = CalendarExporter.export(store, start, end, format, expand, path);
+        System.out.println("Exported " + written + (expand ? " occurrences" : " events") + " to "
+                + path.toAbsolutePath());
+    }
+
+    private static void toggleOccurrence(Scanner scanner, EventStore store, AsyncStoreWriter storeWriter) {
+        if (!confirmAction(scanner, "Skip or restore occurrence")) {
+            return;
+        }
+        listEventsSummary(store);
+        Integer id = promptEventId(scanner, store, "change");
+        if (id == null) {
+            return;
+        }
+        RecurrenceRule rule = store.findRecurrence(id).orElse(null);
+        if (rule == null) {
+            System.out.println("Event " + id + " is not recurring.");
+            return;
+        }
+        if (rule.hasExceptions()) {
+            System.out.println("Skipped dates: " + rule.getExceptionDates());
+        }
+        LocalDate date = promptDate(scanner, "Occurrence date (yyyy-MM-dd): ");
+        List<LocalDate> dates = new ArrayList<>(rule.getExceptionDates());
+        if (dates.remove(date)) {
+            RecurrenceRule restored = rule.withExceptionDates(dates);
+            if (store.hasConflict(id, store.findEvent(id).get(), restored)) {
+                System.out.println("Cannot restore occurrence: it conflicts with an existing event.");
+                return;
+            }
+            store.setRecurrence(restored);
+            System.out.println("Occurrence on " + date + " restored.");
+        } else {
+            boolean scheduled = store.findNextOccurrence(id, date.atStartOfDay())
+                    .filter(occurrence -> occurrence.getStart().toLocalDate().equals(date))
+                    .isPresent();
+            if (!scheduled) {
+                System.out.println("Event " + id + " has no occurrence on " + date + ".");
+                return;
+            }
+            dates.add(date);
+            store.setRecurrence(rule.withExceptionDates(dates));
+            System.out.println("Occurrence on " + date + " skipped.");
+        }
+        storeWriter.requestSave();
+    }
+
+    private static void syncWithDirectory(Scanner scanner, EventStore store, AsyncStoreWriter storeWriter)
+            throws IOException {
+        if (!confirmAction(scanner, "Sync data")) {
+            return;
+        }
+        System.out.print("Other data directory: ");
+        Path path = Paths.get(scanner.nextLine().trim());
+        storeWriter.flush();
+        EventStore other = new EventStore(path);
+        other.load();
+        StoreSync.SyncReport report = StoreSync.sync(store, other);
+        System.out.println("Sync completed. " + report);
+    }
+
     private static void listEventsSummary(EventStore store) {
-        List<Event> events = store.listEvents();
+        Collection<Event> events = store.listEvents();
         if (events.isEmpty()) {
             System.out.println("No events found.");
             return;
@@ -447,20 +713,25 @@ public class Main {
         }
     }
 
-    private static void printOccurrencesForDate(Map<LocalDate, List<EventOccurrence>> occurrences, LocalDate date) {
-        List<EventOccurrence> list = occurrences.get(date);
-        if (list == null || list.isEmpty()) {
+    private static void printDays(DailyOccurrences occurrences) {
+        for (int day = 0; day < occurrences.dayCount(); day++) {
+            System.out.print(occurrences.dateAt(day) + ": ");
+            printOccurrencesForDateInline(occurrences.forDay(day));
+        }
+    }
+
+    private static void printOccurrencesForDate(List<EventOccurrence> list) {
+        if (list.isEmpty()) {
             System.out.println("No events");
             return;
         }
         for (EventOccurrence occurrence : list) {
-            System.out.println(occurrence.getTitle() + " (" + occurrence.getStart().format(TIME_FORMAT) + ")");
+            System.out.println(displayTitle(occurrence) + " (" + occurrence.getStart().format(TIME_FORMAT) + ")");
         }
     }
 
-    private static void printOccurrencesForDateInline(Map<LocalDate, List<EventOccurrence>> occurrences, LocalDate date) {
-        List<EventOccurrence> list = occurrences.get(date);
-        if (list == null || list.isEmpty()) {
+    private static void printOccurrencesForDateInline(List<EventOccurrence> list) {
+        if (list.isEmpty()) {
             System.out.println("No events");
             return;
         }
@@ -469,7 +740,7 @@ public class Main {
             if (builder.length() > 0) {
                 builder.append(", ");
             }
-            builder.append(occurrence.getTitle())
+            builder.append(displayTitle(occurrence))
                     .append(" (")
                     .append(occurrence.getStart().format(TIME_FORMAT))
                     .append(")");
@@ -477,6 +748,13 @@ public class Main {
         System.out.println(builder);
     }
 
+    private static String displayTitle(EventOccurrence occurrence) {
+        if (occurrence.getCalendar() == null) {
+            return occurrence.getTitle();
+        }
+        return "[" + occurrence.getCalendar() + "] " + occurrence.getTitle();
+    }
+
     private static LocalDateTime promptDateTime(Scanner scanner, String message) {
         while (true) {
             System.out.print(message);
@@ -568,6 +846,18 @@ public class Main {
         }
     }
 
+    private static LocalTime promptTime(Scanner scanner, String message) {
+        while (true) {
+            System.out.print(message);
+            String input = scanner.nextLine().trim();
+            try {
+                return LocalTime.parse(input, TIME_FORMAT);
+            } catch (Exception ex) {
+                System.out.println("Invalid time format.");
+            }
+        }
+    }
+
     private static YearMonth promptMonth(Scanner scanner) {
         while (true) {
             System.out.print("Month (yyyy-MM): ");
@@ -585,7 +875,7 @@ public class Main {
         if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
             return null;
         }
-        System.out.print("Interval (e.g. 1d, 2w, 1m): ");
+        System.out.print("Interval (e.g. 1d, 2w, 1w:mo,we,fr, 1m, 1m:2tu, 1m:-1fr, 1m:last, 1y): ");
         String interval = scanner.nextLine().trim();
         System.out.print("Repeat times (0 for until end date): ");
         int times = Integer.parseInt(scanner.nextLine().trim());
@@ -602,23 +892,32 @@ public class Main {
                 System.out.println("Invalid date format.");
             }
         }
-        return new RecurrenceInput(interval, times, endDate);
+        List<LocalDate> exceptionDates;
+        while (true) {
+            System.out.print("Skip dates (yyyy-MM-dd, comma-separated, leave blank for none): ");
+            try {
+                exceptionDates = RecurrenceRule.parseExceptionDates(scanner.nextLine());
+                break;
+            } catch (IllegalArgumentException ex) {
+                System.out.println(ex.getMessage());
+            }
+        }
+        return new RecurrenceInput(interval, times, endDate, exceptionDates);
     }
 
     private static RecurrenceRule buildRecurrenceRule(int eventId, RecurrenceInput input) {
         if (input == null) {
             return null;
         }
-        return RecurrenceRule.parse(eventId, input.interval, input.times, input.endDate);
+        RecurrenceRule rule = RecurrenceRule.parse(eventId, input.interval, input.times, input.endDate);
+        return input.exceptionDates.isEmpty() ? rule : rule.withExceptionDates(input.exceptionDates);
     }
 
-    private static boolean saveStore(EventStore store) {
+    private static void closeStore(AsyncStoreWriter storeWriter) {
         try {
-            store.save();
-            return true;
+            storeWriter.close();
         } catch (IOException ex) {
             System.out.println(ex.getMessage());
-            return false;
         }
     }
 
@@ -668,37 +967,11 @@ public class Main {
         }
     }
 
-    private static void showStartupReminder(EventStore store) {
-        LocalDateTime now = LocalDateTime.now();
-        EventOccurrence next = null;
-        int reminderMinutes = 0;
-        for (Event event : store.listEvents()) {
-            RecurrenceRule rule = store.findRecurrence(event.getId()).orElse(null);
-            LocalDate rangeStart = now.toLocalDate();
-            LocalDate rangeEnd = rangeStart.plusDays(30);
-            List<EventOccurrence> occurrences = EventTimeline.expandOccurrences(event, rule, rangeStart, rangeEnd);
-            for (EventOccurrence occurrence : occurrences) {
-                if (occurrence.getStart().isBefore(now)) {
-                    continue;
-                }
-                Optional<Integer> minutes = store.findReminderMinutes(occurrence.getEventId());
-                if (!minutes.isPresent()) {
-                    continue;
-                }
-                if (next == null || occurrence.getStart().isBefore(next.getStart())) {
-                    next = occurrence;
-                    reminderMinutes = minutes.get();
-                }
-            }
-        }
-        if (next == null) {
-            return;
-        }
-        Duration until = Duration.between(now, next.getStart());
-        if (until.toMinutes() <= reminderMinutes) {
-            System.out.println("Your next event is coming soon in " + formatDuration(until)
-                    + ": " + next.getTitle());
-        }
+    private static void showReminder(Reminder reminder) {
+        EventOccurrence next = reminder.getOccurrence();
+        Duration until = Duration.between(LocalDateTime.now(), next.getStart());
+        System.out.println("\nYour next event is coming soon in " + formatDuration(until)
+                + ": " + next.getTitle());
     }
 
     private static String formatDuration(Duration duration) {
@@ -715,11 +988,13 @@ public class Main {
         private final String interval;
         private final int times;
         private final String endDate;
+        private final List<LocalDate> exceptionDates;
 
-        private RecurrenceInput(String interval, int times, String endDate) {
+        private RecurrenceInput(String interval, int times, String endDate, List<LocalDate> exceptionDates) {
             this.interval = interval;
             this.times = times;
             this.endDate = endDate;
+            this.exceptionDates = exceptionDates;
         }
     }
 }
\ No newline at end of file
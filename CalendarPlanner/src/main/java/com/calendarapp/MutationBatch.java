@@ -0,0 +1,105 @@
+package com.calendarapp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class MutationBatch {
+    private final List<Mutation> mutations = new ArrayList<>();
+    private int createCount;
+
+    public int create(String title, String description, LocalDateTime start, LocalDateTime end,
+                      RecurrenceRule rule, Integer reminderMinutes) {
+        mutations.add(new Mutation(Kind.CREATE, -1, title, description, start, end, rule, reminderMinutes));
+        return createCount++;
+    }
+
+    public void update(int eventId, String title, String description, LocalDateTime start, LocalDateTime end) {
+        mutations.add(new Mutation(Kind.UPDATE, eventId, title, description, start, end, null, null));
+    }
+
+    public void delete(int eventId) {
+        mutations.add(new Mutation(Kind.DELETE, eventId, null, null, null, null, null, null));
+    }
+
+    public int size() {
+        return mutations.size();
+    }
+
+    public int createCount() {
+        return createCount;
+    }
+
+    public boolean isEmpty() {
+        return mutations.isEmpty();
+    }
+
+    public void clear() {
+        mutations.clear();
+        createCount = 0;
+    }
+
+    List<Mutation> mutations() {
+        return Collections.unmodifiableList(mutations);
+    }
+
+    enum Kind {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    static final class Mutation {
+        final Kind kind;
+        final int eventId;
+        final String title;
+        final String description;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final RecurrenceRule rule;
+        final Integer reminderMinutes;
+
+        private Mutation(Kind kind, int eventId, String title, String description, LocalDateTime start,
+                         LocalDateTime end, RecurrenceRule rule, Integer reminderMinutes) {
+            this.kind = kind;
+            this.eventId = eventId;
+            this.title = title;
+            this.description = description;
+            this.start = start;
+            this.end = end;
+            this.rule = rule;
+            this.reminderMinutes = reminderMinutes;
+        }
+    }
+
+    public static final class Conflict {
+        private final Event first;
+        private final Event second;
+        private final TimeSlot overlap;
+
+        Conflict(Event first, Event second, TimeSlot overlap) {
+            this.first = first;
+            this.second = second;
+            this.overlap = overlap;
+        }
+
+        public Event getFirst() {
+            return first;
+        }
+
+        public Event getSecond() {
+            return second;
+        }
+
+        public TimeSlot getOverlap() {
+            return overlap;
+        }
+
+        @Override
+        public String toString() {
+            return first.getTitle() + " (#" + first.getId() + ") overlaps " + second.getTitle()
+                    + " (#" + second.getId() + ") at " + overlap;
+        }
+    }
+}
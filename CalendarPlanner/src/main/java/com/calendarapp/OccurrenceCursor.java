@@ -0,0 +1,383 @@
+package com.calendarapp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class OccurrenceCursor implements Comparable<OccurrenceCursor> {
+    private static final long NONE = Long.MAX_VALUE;
+    private static final int MAX_EMPTY_PERIODS = 4800;
+
+    private final Event event;
+    private final RecurrenceRule rule;
+    private final Stepper stepper;
+    private final long limitDay;
+    private final int target;
+    private long currentStart;
+    private int produced;
+    private boolean exhausted;
+
+    public OccurrenceCursor(Event event, RecurrenceRule rule) {
+        this.event = event;
+        this.rule = rule;
+        this.stepper = rule == null ? null : Stepper.forRule(event.getStartMinute(), rule);
+        this.limitDay = rule == null || rule.getEndDate() == null
+                ? Long.MAX_VALUE
+                : rule.getEndDate().toEpochDay();
+        this.target = rule == null ? 1 : Math.max(1, rule.getTimes());
+        this.currentStart = event.getStartMinute();
+        skipExcluded();
+    }
+
+    public Event getEvent() {
+        return event;
+    }
+
+    public boolean hasCurrent() {
+        return !exhausted;
+    }
+
+    public long currentStartMinute() {
+        return currentStart;
+    }
+
+    public EventKey currentKey() {
+        return new EventKey(currentStart, event.getId());
+    }
+
+    public EventOccurrence current() {
+        return new EventOccurrence(event, currentStart - event.getStartMinute(), rule != null);
+    }
+
+    @Override
+    public int compareTo(OccurrenceCursor other) {
+        int byStart = Long.compare(currentStart, other.currentStart);
+        return byStart != 0 ? byStart : Integer.compare(event.getId(), other.event.getId());
+    }
+
+    public void advance() {
+        step();
+        skipExcluded();
+    }
+
+    private void step() {
+        if (exhausted) {
+            return;
+        }
+        produced++;
+        if (rule == null || (rule.getTimes() > 0 && produced >= target)) {
+            exhausted = true;
+            return;
+        }
+        currentStart = stepper.next();
+        if (currentStart == NONE || EpochMinutes.epochDay(currentStart) > limitDay) {
+            exhausted = true;
+        }
+    }
+
+    public void skipTo(long epochMinute) {
+        if (exhausted || currentStart >= epochMinute) {
+            return;
+        }
+        boolean skipped = skipAhead(epochMinute);
+        while (!exhausted && currentStart < epochMinute) {
+            step();
+            if (!skipped && !exhausted && currentStart < epochMinute) {
+                skipped = skipAhead(epochMinute);
+            }
+        }
+        skipExcluded();
+    }
+
+    private boolean skipAhead(long epochMinute) {
+        if (rule == null) {
+            return false;
+        }
+        long limit = rule.getTimes() > 0 ? target - 1 - produced : Long.MAX_VALUE;
+        long skipped = limit > 0 ? stepper.skip(epochMinute, limit) : 0;
+        if (skipped <= 0) {
+            return false;
+        }
+        produced += (int) Math.min(skipped, Integer.MAX_VALUE - produced);
+        currentStart = stepper.current;
+        if (currentStart == NONE || EpochMinutes.epochDay(currentStart) > limitDay) {
+            exhausted = true;
+        }
+        return true;
+    }
+
+    private void skipExcluded() {
+        while (!exhausted && rule != null && rule.excludesDay(EpochMinutes.epochDay(currentStart))) {
+            step();
+        }
+    }
+
+    private abstract static class Stepper {
+        long current;
+
+        Stepper(long start) {
+            this.current = start;
+        }
+
+        abstract long next();
+
+        long skip(long target, long limit) {
+            return 0;
+        }
+
+        static Stepper forRule(long start, RecurrenceRule rule) {
+            int interval = rule.getIntervalCount();
+            return switch (rule.getUnit()) {
+                case DAY -> fixedOrDrift(start, (long) interval * EpochMinutes.MINUTES_PER_DAY, interval);
+                case WEEK -> rule.getWeekdays().isEmpty()
+                        ? fixedOrDrift(start, (long) interval * 7 * EpochMinutes.MINUTES_PER_DAY, interval)
+                        : new WeekdayTable(start, interval, rule.weekdayOffsets());
+                case MONTH -> rule.hasPattern()
+                        ? MonthSelection.forPattern(start, interval, rule)
+                        : new MonthDrift(start, interval);
+                case YEAR -> rule.hasPattern()
+                        ? MonthSelection.forPattern(start, 12 * interval, rule)
+                        : new ClampedDay(start, 12 * interval);
+            };
+        }
+
+        private static Stepper fixedOrDrift(long start, long step, int interval) {
+            return step > 0 ? new FixedStep(start, step) : new MonthDrift(start, interval);
+        }
+    }
+
+    private static final class FixedStep extends Stepper {
+        private final long step;
+
+        FixedStep(long start, long step) {
+            super(start);
+            this.step = step;
+        }
+
+        @Override
+        long next() {
+            current += step;
+            return current;
+        }
+
+        @Override
+        long skip(long target, long limit) {
+            long skip = Math.min((target - current) / step, limit);
+            if (skip <= 0) {
+                return 0;
+            }
+            current += skip * step;
+            return skip;
+        }
+    }
+
+    private static final class MonthDrift extends Stepper {
+        private final int months;
+
+        MonthDrift(long start, int months) {
+            super(start);
+            this.months = months;
+        }
+
+        @Override
+        long next() {
+            current = EpochMinutes.of(EpochMinutes.toDateTime(current).plusMonths(months));
+            return current;
+        }
+
+        @Override
+        long skip(long target, long limit) {
+            LocalDateTime time = EpochMinutes.toDateTime(current);
+            if (months <= 0 || mayDrift(time)) {
+                return 0;
+            }
+            LocalDateTime targetTime = EpochMinutes.toDateTime(target);
+            long monthsAhead = (targetTime.getYear() - time.getYear()) * 12L
+                    + targetTime.getMonthValue() - time.getMonthValue();
+            long skip = Math.min(monthsAhead / months - 1, limit);
+            if (skip <= 0) {
+                return 0;
+            }
+            current = EpochMinutes.of(time.plusMonths(skip * months));
+            return skip;
+        }
+
+        private boolean mayDrift(LocalDateTime time) {
+            int day = time.getDayOfMonth();
+            for (int i = 1; i <= 12 && day > 28; i++) {
+                if (time.getMonth().plus((long) months * i).minLength() < day) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class WeekdayTable extends Stepper {
+        private final long[] offsets;
+        private final long period;
+        private long base;
+        private int index;
+
+        WeekdayTable(long start, int interval, int[] weekdayOffsets) {
+            super(start);
+            long day = EpochMinutes.epochDay(start);
+            int dayOfWeek = (int) Math.floorMod(day + 3, 7L);
+            this.offsets = new long[weekdayOffsets.length];
+            this.index = -1;
+            for (int i = 0; i < weekdayOffsets.length; i++) {
+                offsets[i] = (long) weekdayOffsets[i] * EpochMinutes.MINUTES_PER_DAY;
+                if (weekdayOffsets[i] <= dayOfWeek) {
+                    index = i;
+                }
+            }
+            this.period = (long) interval * 7 * EpochMinutes.MINUTES_PER_DAY;
+            this.base = start - (long) dayOfWeek * EpochMinutes.MINUTES_PER_DAY;
+        }
+
+        @Override
+        long next() {
+            if (++index == offsets.length) {
+                index = 0;
+                base += period;
+            }
+            current = base + offsets[index];
+            return current;
+        }
+
+        @Override
+        long skip(long target, long limit) {
+            if (index < 0 || period <= 0) {
+                return 0;
+            }
+            long periods = Math.min((target - base) / period - 1, limit / offsets.length);
+            if (periods <= 0) {
+                return 0;
+            }
+            base += periods * period;
+            current = base + offsets[index];
+            return periods * offsets.length;
+        }
+    }
+
+    private abstract static class MonthSelection extends Stepper {
+        private final int stepMonths;
+        private final long timeOfDay;
+        private long monthIndex;
+
+        MonthSelection(long start, int stepMonths) {
+            super(start);
+            LocalDateTime first = EpochMinutes.toDateTime(start);
+            this.stepMonths = stepMonths;
+            this.timeOfDay = EpochMinutes.minuteOfDay(start);
+            this.monthIndex = first.getYear() * 12L + first.getMonthValue() - 1;
+        }
+
+        static Stepper forPattern(long start, int stepMonths, RecurrenceRule rule) {
+            MonthSelection selection = rule.isLastDayOfMonth()
+                    ? new LastDay(start, stepMonths)
+                    : new NthWeekday(start, stepMonths, rule.getWeekdayOrdinal(),
+                    rule.getWeekdays().iterator().next().getValue());
+            selection.includeStartMonth();
+            return selection;
+        }
+
+        void includeStartMonth() {
+            long day = dayIn(monthStart(monthIndex));
+            if (day != NONE && day * EpochMinutes.MINUTES_PER_DAY + timeOfDay > current) {
+                monthIndex -= stepMonths;
+            }
+        }
+
+        abstract long dayIn(LocalDate monthStart);
+
+        @Override
+        long next() {
+            if (stepMonths <= 0) {
+                current = NONE;
+                return current;
+            }
+            for (int i = 0; i < MAX_EMPTY_PERIODS; i++) {
+                monthIndex += stepMonths;
+                long day = dayIn(monthStart(monthIndex));
+                if (day != NONE) {
+                    current = day * EpochMinutes.MINUTES_PER_DAY + timeOfDay;
+                    return current;
+                }
+            }
+            current = NONE;
+            return current;
+        }
+
+        @Override
+        long skip(long target, long limit) {
+            if (limit != Long.MAX_VALUE || stepMonths <= 0) {
+                return 0;
+            }
+            LocalDateTime targetTime = EpochMinutes.toDateTime(target);
+            long targetMonth = targetTime.getYear() * 12L + targetTime.getMonthValue() - 1;
+            long skip = (targetMonth - monthIndex) / stepMonths - 1;
+            if (skip <= 0) {
+                return 0;
+            }
+            monthIndex += (skip - 1) * stepMonths;
+            next();
+            return skip;
+        }
+
+        private static LocalDate monthStart(long monthIndex) {
+            return LocalDate.of((int) Math.floorDiv(monthIndex, 12L), (int) Math.floorMod(monthIndex, 12L) + 1, 1);
+        }
+    }
+
+    private static final class ClampedDay extends MonthSelection {
+        private final int dayOfMonth;
+
+        ClampedDay(long start, int stepMonths) {
+            super(start, stepMonths);
+            this.dayOfMonth = EpochMinutes.toDateTime(start).getDayOfMonth();
+        }
+
+        @Override
+        long dayIn(LocalDate monthStart) {
+            return monthStart.toEpochDay() + Math.min(dayOfMonth, monthStart.lengthOfMonth()) - 1;
+        }
+    }
+
+    private static final class LastDay extends MonthSelection {
+        LastDay(long start, int stepMonths) {
+            super(start, stepMonths);
+        }
+
+        @Override
+        long dayIn(LocalDate monthStart) {
+            return monthStart.toEpochDay() + monthStart.lengthOfMonth() - 1;
+        }
+    }
+
+    private static final class NthWeekday extends MonthSelection {
+        private final int ordinal;
+        private final int dayOfWeek;
+
+        NthWeekday(long start, int stepMonths, int ordinal, int dayOfWeek) {
+            super(start, stepMonths);
+            this.ordinal = ordinal;
+            this.dayOfWeek = dayOfWeek;
+        }
+
+        @Override
+        long dayIn(LocalDate monthStart) {
+            long first = monthStart.toEpochDay();
+            int length = monthStart.lengthOfMonth();
+            if (ordinal < 0) {
+                long last = first + length - 1;
+                return last - Math.floorMod(weekdayOf(last) - dayOfWeek, 7);
+            }
+            long offset = Math.floorMod(dayOfWeek - weekdayOf(first), 7) + (ordinal - 1) * 7L;
+            return offset < length ? first + offset : NONE;
+        }
+
+        private static int weekdayOf(long epochDay) {
+            return (int) Math.floorMod(epochDay + 3, 7L) + 1;
+        }
+    }
+}
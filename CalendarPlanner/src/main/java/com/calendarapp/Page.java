@@ -0,0 +1,36 @@
+package com.calendarapp;
+
+import java.util.Collections;
+import java.util.List;
+
+public class Page<T> {
+    private final List<T> items;
+    private final EventKey nextKey;
+    private final Object continuation;
+
+    public Page(List<T> items, EventKey nextKey) {
+        this(items, nextKey, null);
+    }
+
+    Page(List<T> items, EventKey nextKey, Object continuation) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextKey = nextKey;
+        this.continuation = continuation;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public EventKey getNextKey() {
+        return nextKey;
+    }
+
+    Object getContinuation() {
+        return continuation;
+    }
+
+    public boolean hasMore() {
+        return nextKey != null;
+    }
+}
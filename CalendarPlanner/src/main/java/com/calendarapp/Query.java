@@ -0,0 +1,136 @@
+package com.calendarapp;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+public final class Query {
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final String titleTerm;
+    private final String descriptionTerm;
+    private final boolean recurringOnly;
+    private final boolean remindersOnly;
+    private final long minDurationMinutes;
+    private final long maxDurationMinutes;
+    private final Sort sort;
+    private final int limit;
+
+    private Query(LocalDate startDate, LocalDate endDate, String titleTerm, String descriptionTerm,
+                  boolean recurringOnly, boolean remindersOnly, long minDurationMinutes, long maxDurationMinutes,
+                  Sort sort, int limit) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.titleTerm = titleTerm;
+        this.descriptionTerm = descriptionTerm;
+        this.recurringOnly = recurringOnly;
+        this.remindersOnly = remindersOnly;
+        this.minDurationMinutes = minDurationMinutes;
+        this.maxDurationMinutes = maxDurationMinutes;
+        this.sort = sort;
+        this.limit = limit;
+    }
+
+    public static Query between(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start and end dates are required.");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must be after start date.");
+        }
+        return new Query(startDate, endDate, "", "", false, false, 0, Long.MAX_VALUE, Sort.EARLIEST_FIRST,
+                Integer.MAX_VALUE);
+    }
+
+    public Query withTitle(String term) {
+        return new Query(startDate, endDate, TextIndex.normalize(term), descriptionTerm, recurringOnly,
+                remindersOnly, minDurationMinutes, maxDurationMinutes, sort, limit);
+    }
+
+    public Query withDescription(String term) {
+        return new Query(startDate, endDate, titleTerm, TextIndex.normalize(term), recurringOnly,
+                remindersOnly, minDurationMinutes, maxDurationMinutes, sort, limit);
+    }
+
+    public Query withRecurringOnly(boolean value) {
+        return new Query(startDate, endDate, titleTerm, descriptionTerm, value,
+                remindersOnly, minDurationMinutes, maxDurationMinutes, sort, limit);
+    }
+
+    public Query withRemindersOnly(boolean value) {
+        return new Query(startDate, endDate, titleTerm, descriptionTerm, recurringOnly,
+                value, minDurationMinutes, maxDurationMinutes, sort, limit);
+    }
+
+    public Query withDuration(Duration min, Duration max) {
+        long minMinutes = min == null ? 0 : min.toMinutes();
+        long maxMinutes = max == null ? Long.MAX_VALUE : max.toMinutes();
+        if (maxMinutes < minMinutes) {
+            throw new IllegalArgumentException("Maximum duration must not be below the minimum.");
+        }
+        return new Query(startDate, endDate, titleTerm, descriptionTerm, recurringOnly,
+                remindersOnly, minMinutes, maxMinutes, sort, limit);
+    }
+
+    public Query withSort(Sort value) {
+        return new Query(startDate, endDate, titleTerm, descriptionTerm, recurringOnly,
+                remindersOnly, minDurationMinutes, maxDurationMinutes, value == null ? Sort.EARLIEST_FIRST : value,
+                limit);
+    }
+
+    public Query withLimit(int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+        return new Query(startDate, endDate, titleTerm, descriptionTerm, recurringOnly,
+                remindersOnly, minDurationMinutes, maxDurationMinutes, sort, value);
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public long getWindowStartMinute() {
+        return EpochMinutes.of(startDate);
+    }
+
+    public long getWindowEndMinute() {
+        return EpochMinutes.of(endDate.plusDays(1));
+    }
+
+    public String getTitleTerm() {
+        return titleTerm;
+    }
+
+    public String getDescriptionTerm() {
+        return descriptionTerm;
+    }
+
+    public boolean isRecurringOnly() {
+        return recurringOnly;
+    }
+
+    public boolean isRemindersOnly() {
+        return remindersOnly;
+    }
+
+    public boolean acceptsDuration(long minutes) {
+        return minutes >= minDurationMinutes && minutes <= maxDurationMinutes;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public enum Sort {
+        EARLIEST_FIRST,
+        LATEST_FIRST
+    }
+}
@@ -1,20 +1,54 @@
 package com.calendarapp;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 public class RecurrenceRule {
+    private static final String[] WEEKDAY_CODES = {"mo", "tu", "we", "th", "fr", "sa", "su"};
+    private static final String LAST_DAY_OF_MONTH = "last";
+
     private final int eventId;
     private final int intervalCount;
     private final RecurrenceUnit unit;
     private final int times;
     private final LocalDate endDate;
+    private final Set<DayOfWeek> weekdays;
+    private final int weekdayOrdinal;
+    private final boolean lastDayOfMonth;
+    private final int[] weekdayOffsets;
+    private final long[] exceptionDays;
 
     public RecurrenceRule(int eventId, int intervalCount, RecurrenceUnit unit, int times, LocalDate endDate) {
+        this(eventId, intervalCount, unit, times, endDate, EnumSet.noneOf(DayOfWeek.class), 0, false, new long[0]);
+    }
+
+    private RecurrenceRule(int eventId, int intervalCount, RecurrenceUnit unit, int times, LocalDate endDate,
+                           Set<DayOfWeek> weekdays, int weekdayOrdinal, boolean lastDayOfMonth,
+                           long[] exceptionDays) {
         this.eventId = eventId;
         this.intervalCount = intervalCount;
         this.unit = unit;
         this.times = times;
         this.endDate = endDate;
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        days.addAll(weekdays);
+        this.weekdays = Collections.unmodifiableSet(days);
+        this.weekdayOrdinal = weekdayOrdinal;
+        this.lastDayOfMonth = lastDayOfMonth;
+        this.weekdayOffsets = new int[this.weekdays.size()];
+        int index = 0;
+        for (DayOfWeek day : this.weekdays) {
+            weekdayOffsets[index++] = day.getValue() - 1;
+        }
+        this.exceptionDays = exceptionDays;
     }
 
     public int getEventId() {
@@ -37,17 +71,195 @@ public class RecurrenceRule {
         return endDate;
     }
 
+    public Set<DayOfWeek> getWeekdays() {
+        return weekdays;
+    }
+
+    public int getWeekdayOrdinal() {
+        return weekdayOrdinal;
+    }
+
+    public boolean isLastDayOfMonth() {
+        return lastDayOfMonth;
+    }
+
+    public boolean hasPattern() {
+        return !weekdays.isEmpty() || lastDayOfMonth;
+    }
+
+    int[] weekdayOffsets() {
+        return weekdayOffsets;
+    }
+
+    public List<LocalDate> getExceptionDates() {
+        List<LocalDate> dates = new ArrayList<>(exceptionDays.length);
+        for (long day : exceptionDays) {
+            dates.add(LocalDate.ofEpochDay(day));
+        }
+        return dates;
+    }
+
+    public boolean hasExceptions() {
+        return exceptionDays.length > 0;
+    }
+
+    public boolean isExcluded(LocalDate date) {
+        return excludesDay(date.toEpochDay());
+    }
+
+    boolean excludesDay(long epochDay) {
+        return exceptionDays.length > 0 && Arrays.binarySearch(exceptionDays, epochDay) >= 0;
+    }
+
+    long[] exceptionDays() {
+        return exceptionDays;
+    }
+
+    public RecurrenceRule withEventId(int newEventId) {
+        return new RecurrenceRule(newEventId, intervalCount, unit, times, endDate,
+                weekdays, weekdayOrdinal, lastDayOfMonth, exceptionDays);
+    }
+
+    public RecurrenceRule withExceptionDates(Collection<LocalDate> dates) {
+        long[] days = new long[dates == null ? 0 : dates.size()];
+        int count = 0;
+        if (dates != null) {
+            for (LocalDate date : dates) {
+                days[count++] = date.toEpochDay();
+            }
+        }
+        return withExceptionDays(days);
+    }
+
+    RecurrenceRule withExceptionDays(long[] days) {
+        long[] sorted = days.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return new RecurrenceRule(eventId, intervalCount, unit, times, endDate,
+                weekdays, weekdayOrdinal, lastDayOfMonth, Arrays.copyOf(sorted, distinct));
+    }
+
+    public RecurrenceRule withWeekdays(Set<DayOfWeek> days) {
+        if (unit != RecurrenceUnit.WEEK) {
+            throw new IllegalArgumentException("Weekdays can only be chosen for weekly recurrence.");
+        }
+        if (days == null || days.isEmpty()) {
+            throw new IllegalArgumentException("At least one weekday is required.");
+        }
+        return new RecurrenceRule(eventId, intervalCount, unit, times, endDate, days, 0, false, exceptionDays);
+    }
+
+    public RecurrenceRule withNthWeekday(int ordinal, DayOfWeek day) {
+        if (unit != RecurrenceUnit.MONTH && unit != RecurrenceUnit.YEAR) {
+            throw new IllegalArgumentException("Nth weekday can only be chosen for monthly or yearly recurrence.");
+        }
+        if (ordinal == 0 || ordinal < -1 || ordinal > 5 || day == null) {
+            throw new IllegalArgumentException("Weekday position must be 1 to 5, or -1 for the last one.");
+        }
+        return new RecurrenceRule(eventId, intervalCount, unit, times, endDate, EnumSet.of(day), ordinal, false,
+                exceptionDays);
+    }
+
+    public RecurrenceRule withLastDayOfMonth() {
+        if (unit != RecurrenceUnit.MONTH && unit != RecurrenceUnit.YEAR) {
+            throw new IllegalArgumentException("Last day of month can only be chosen for monthly or yearly recurrence.");
+        }
+        return new RecurrenceRule(eventId, intervalCount, unit, times, endDate,
+                EnumSet.noneOf(DayOfWeek.class), 0, true, exceptionDays);
+    }
+
     public String toIntervalString() {
-        return intervalCount + unit.getCode();
+        String pattern = toPatternString();
+        return pattern.isEmpty()
+                ? intervalCount + unit.getCode()
+                : intervalCount + unit.getCode() + ":" + pattern;
+    }
+
+    public String toPatternString() {
+        if (lastDayOfMonth) {
+            return LAST_DAY_OF_MONTH;
+        }
+        StringBuilder pattern = new StringBuilder();
+        for (DayOfWeek day : weekdays) {
+            if (pattern.length() > 0) {
+                pattern.append(',');
+            }
+            if (weekdayOrdinal != 0) {
+                pattern.append(weekdayOrdinal);
+            }
+            pattern.append(WEEKDAY_CODES[day.getValue() - 1]);
+        }
+        return pattern.toString();
     }
 
     public static RecurrenceRule parse(int eventId, String interval, int times, String endDateRaw) {
+        int separator = interval.indexOf(':');
+        return separator < 0
+                ? parse(eventId, interval, "", times, endDateRaw)
+                : parse(eventId, interval.substring(0, separator), interval.substring(separator + 1), times,
+                endDateRaw);
+    }
+
+    public static RecurrenceRule parse(int eventId, String interval, String pattern, int times, String endDateRaw) {
         String trimmed = interval.trim().toLowerCase();
         int count = Integer.parseInt(trimmed.substring(0, trimmed.length() - 1));
         RecurrenceUnit unit = RecurrenceUnit.fromCode(trimmed.substring(trimmed.length() - 1));
         LocalDate endDate = endDateRaw == null || endDateRaw.equals("0") || endDateRaw.trim().isEmpty()
                 ? null
                 : LocalDate.parse(endDateRaw);
-        return new RecurrenceRule(eventId, count, unit, times, endDate);
+        RecurrenceRule rule = new RecurrenceRule(eventId, count, unit, times, endDate);
+        String normalized = pattern == null ? "" : pattern.trim().toLowerCase();
+        if (normalized.isEmpty()) {
+            return rule;
+        }
+        if (normalized.equals(LAST_DAY_OF_MONTH)) {
+            return rule.withLastDayOfMonth();
+        }
+        if (!Character.isLetter(normalized.charAt(0))) {
+            int ordinalEnd = normalized.length() - 2;
+            if (ordinalEnd <= 0) {
+                throw new IllegalArgumentException("Unknown recurrence pattern: " + pattern);
+            }
+            return rule.withNthWeekday(Integer.parseInt(normalized.substring(0, ordinalEnd)),
+                    weekdayOf(normalized.substring(ordinalEnd)));
+        }
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String code : normalized.split(",")) {
+            days.add(weekdayOf(code.trim()));
+        }
+        return rule.withWeekdays(days);
+    }
+
+    public static List<LocalDate> parseExceptionDates(String raw) {
+        List<LocalDate> dates = new ArrayList<>();
+        if (raw == null) {
+            return dates;
+        }
+        for (String part : raw.split("[,;]")) {
+            String trimmed = part.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                dates.add(LocalDate.parse(trimmed));
+            } catch (DateTimeParseException ex) {
+                throw new IllegalArgumentException("Invalid exception date: " + trimmed);
+            }
+        }
+        return dates;
+    }
+
+    static DayOfWeek weekdayOf(String code) {
+        for (int i = 0; i < WEEKDAY_CODES.length; i++) {
+            if (WEEKDAY_CODES[i].equalsIgnoreCase(code)) {
+                return DayOfWeek.of(i + 1);
+            }
+        }
+        throw new IllegalArgumentException("Unknown weekday: " + code);
     }
-}
\ No newline at end of file
+}
@@ -3,7 +3,8 @@ package com.calendarapp;
 public enum RecurrenceUnit {
     DAY("d"),
     WEEK("w"),
-    MONTH("m");
+    MONTH("m"),
+    YEAR("y");
 
     private final String code;
 
@@ -23,4 +24,4 @@ public enum RecurrenceUnit {
         }
         throw new IllegalArgumentException("Unknown recurrence unit: " + code);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.calendarapp;
+
+import java.time.LocalDateTime;
+
+public final class Reminder {
+    private final EventOccurrence occurrence;
+    private final int minutesBefore;
+    private final long fireMinute;
+
+    public Reminder(EventOccurrence occurrence, int minutesBefore, long fireMinute) {
+        this.occurrence = occurrence;
+        this.minutesBefore = minutesBefore;
+        this.fireMinute = fireMinute;
+    }
+
+    public EventOccurrence getOccurrence() {
+        return occurrence;
+    }
+
+    public int getEventId() {
+        return occurrence.getEventId();
+    }
+
+    public int getMinutesBefore() {
+        return minutesBefore;
+    }
+
+    public long getFireMinute() {
+        return fireMinute;
+    }
+
+    public LocalDateTime getFireTime() {
+        return EpochMinutes.toDateTime(fireMinute);
+    }
+}
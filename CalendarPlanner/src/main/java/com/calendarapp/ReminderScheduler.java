@@ -0,0 +1,175 @@
+package com.calendarapp;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class ReminderScheduler implements EventStore.ChangeListener, AutoCloseable {
+    private final EventStore store;
+    private final Consumer<Reminder> callback;
+    private final Thread thread;
+    private final TimingWheel<Reminder> wheel = new TimingWheel<>(EpochMinutes.of(LocalDateTime.now()));
+    private final IntObjectMap<TimingWheel.Timer<Reminder>> pendingByEvent = new IntObjectMap<>();
+    private final IntLongMap firedThrough = new IntLongMap();
+    private final IntIntMap changedEvents = new IntIntMap();
+    private boolean reloadRequested = true;
+    private boolean running = true;
+
+    public ReminderScheduler(EventStore store, Consumer<Reminder> callback) {
+        this.store = store;
+        this.callback = callback;
+        this.thread = new Thread(this::run, "reminder-scheduler");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        store.addChangeListener(this);
+        thread.start();
+    }
+
+    public synchronized int pendingCount() {
+        return pendingByEvent.size();
+    }
+
+    @Override
+    public synchronized void eventChanged(int eventId) {
+        changedEvents.put(eventId, eventId);
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void storeReloaded() {
+        reloadRequested = true;
+        notifyAll();
+    }
+
+    @Override
+    public void close() {
+        store.removeChangeListener(this);
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            boolean reload;
+            int[] changed;
+            synchronized (this) {
+                if (!running) {
+                    return;
+                }
+                reload = reloadRequested;
+                reloadRequested = false;
+                changed = new int[changedEvents.size()];
+                int[] index = {0};
+                changedEvents.forEach((eventId, unused) -> changed[index[0]++] = eventId);
+                changedEvents.clear();
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (reload) {
+                List<Reminder> armed = new ArrayList<>();
+                IntSet reminded = new IntSet();
+                for (int eventId : store.listReminderEventIds()) {
+                    reminded.add(eventId);
+                    nextReminder(eventId, now).ifPresent(armed::add);
+                }
+                synchronized (this) {
+                    for (int eventId : firedThrough.keys()) {
+                        if (!reminded.contains(eventId)) {
+                            firedThrough.remove(eventId);
+                        }
+                    }
+                    for (TimingWheel.Timer<Reminder> timer : pendingByEvent) {
+                        wheel.cancel(timer);
+                    }
+                    pendingByEvent.clear();
+                    for (Reminder reminder : armed) {
+                        arm(reminder);
+                    }
+                }
+            }
+            for (int eventId : changed) {
+                Optional<Reminder> next = nextReminder(eventId, now);
+                synchronized (this) {
+                    disarm(eventId);
+                    next.ifPresent(this::arm);
+                }
+            }
+
+            List<Reminder> due = new ArrayList<>();
+            synchronized (this) {
+                if (!running || reloadRequested || changedEvents.size() > 0) {
+                    continue;
+                }
+                wheel.advanceTo(EpochMinutes.of(LocalDateTime.now()), due::add);
+                if (due.isEmpty()) {
+                    long wake = wheel.nextWakeMinute();
+                    if (wake == Long.MAX_VALUE) {
+                        waitQuietly(0);
+                    } else {
+                        waitQuietly(Math.max(1, Duration.between(LocalDateTime.now(),
+                                EpochMinutes.toDateTime(wake)).toMillis()));
+                    }
+                    continue;
+                }
+                for (Reminder reminder : due) {
+                    pendingByEvent.remove(reminder.getEventId());
+                    firedThrough.put(reminder.getEventId(), reminder.getOccurrence().getStartMinute());
+                }
+            }
+            for (Reminder reminder : due) {
+                callback.accept(reminder);
+                Optional<Reminder> next = nextReminder(reminder.getEventId(), LocalDateTime.now());
+                synchronized (this) {
+                    if (!pendingByEvent.containsKey(reminder.getEventId())) {
+                        next.ifPresent(this::arm);
+                    }
+                }
+            }
+        }
+    }
+
+    private Optional<Reminder> nextReminder(int eventId, LocalDateTime now) {
+        Optional<Integer> minutes = store.findReminderMinutes(eventId);
+        long nowMinute = EpochMinutes.of(now);
+        long fired;
+        synchronized (this) {
+            fired = firedThrough.get(eventId, Long.MIN_VALUE);
+            if (!minutes.isPresent() || fired < nowMinute) {
+                firedThrough.remove(eventId);
+                fired = Long.MIN_VALUE;
+            }
+        }
+        if (!minutes.isPresent()) {
+            return Optional.empty();
+        }
+        long from = fired == Long.MIN_VALUE ? nowMinute : Math.max(nowMinute, fired + 1);
+        return store.findNextOccurrence(eventId, EpochMinutes.toDateTime(from)).map(occurrence -> new Reminder(
+                occurrence,
+                minutes.get(),
+                Math.max(occurrence.getStartMinute() - minutes.get(), nowMinute)));
+    }
+
+    private void arm(Reminder reminder) {
+        disarm(reminder.getEventId());
+        pendingByEvent.put(reminder.getEventId(), wheel.schedule(reminder.getFireMinute(), reminder));
+    }
+
+    private void disarm(int eventId) {
+        wheel.cancel(pendingByEvent.remove(eventId));
+    }
+
+    private void waitQuietly(long millis) {
+        try {
+            wait(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.calendarapp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class ResourceAvailability implements AutoCloseable {
+    private final List<EventStore> stores;
+    private final StoreFanOut fanOut;
+
+    public ResourceAvailability(List<EventStore> stores) {
+        this.stores = Collections.unmodifiableList(new ArrayList<>(stores));
+        this.fanOut = new StoreFanOut(stores.size(), "resource-availability", "resources");
+    }
+
+    public static ResourceAvailability open(List<Path> dataDirectories) throws IOException {
+        List<EventStore> stores = new ArrayList<>();
+        for (Path directory : dataDirectories) {
+            stores.add(new EventStore(directory));
+        }
+        ResourceAvailability availability = new ResourceAvailability(stores);
+        try {
+            availability.fanOut.loadAll(stores);
+        } catch (IOException | RuntimeException ex) {
+            availability.close();
+            throw ex;
+        }
+        return availability;
+    }
+
+    public List<EventStore> getStores() {
+        return stores;
+    }
+
+    public List<TimeSlot> findCommonFreeSlots(Duration duration, LocalDateTime earliestStart,
+                                              LocalDateTime latestEnd, int limit) throws IOException {
+        long durationMinutes = duration.toMinutes();
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("Duration must be positive.");
+        }
+        long earliest = EpochMinutes.of(earliestStart);
+        long latest = EpochMinutes.of(latestEnd);
+        List<TimeSlot> busy = mergeBusyIntervals(busyIntervalsPerStore(earliest, latest));
+        return SlotFinder.find(busy, earliest, latest, durationMinutes, null, durationMinutes, limit);
+    }
+
+    public boolean[][] conflictMatrix(List<TimeSlot> slots) throws IOException {
+        boolean[][] matrix = new boolean[stores.size()][slots.size()];
+        if (slots.isEmpty()) {
+            return matrix;
+        }
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        for (TimeSlot slot : slots) {
+            from = Math.min(from, slot.getStartMinute());
+            to = Math.max(to, slot.getEndMinute());
+        }
+        List<List<TimeSlot>> busyPerStore = busyIntervalsPerStore(from, to);
+        for (int resource = 0; resource < stores.size(); resource++) {
+            List<TimeSlot> busy = busyPerStore.get(resource);
+            for (int column = 0; column < slots.size(); column++) {
+                matrix[resource][column] = overlaps(busy, slots.get(column));
+            }
+        }
+        return matrix;
+    }
+
+    @Override
+    public void close() {
+        fanOut.close();
+    }
+
+    private List<List<TimeSlot>> busyIntervalsPerStore(long from, long to) throws IOException {
+        return fanOut.map(stores, store -> store.busyIntervals(from, to, -1));
+    }
+
+    private static List<TimeSlot> mergeBusyIntervals(List<List<TimeSlot>> busyPerStore) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>((left, right) -> Long.compare(
+                busyPerStore.get(left[0]).get(left[1]).getStartMinute(),
+                busyPerStore.get(right[0]).get(right[1]).getStartMinute()));
+        for (int resource = 0; resource < busyPerStore.size(); resource++) {
+            if (!busyPerStore.get(resource).isEmpty()) {
+                heads.add(new int[] {resource, 0});
+            }
+        }
+        List<TimeSlot> merged = new ArrayList<>();
+        long start = 0;
+        long end = Long.MIN_VALUE;
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<TimeSlot> busy = busyPerStore.get(head[0]);
+            TimeSlot slot = busy.get(head[1]);
+            if (slot.getStartMinute() > end) {
+                if (end != Long.MIN_VALUE) {
+                    merged.add(new TimeSlot(start, end));
+                }
+                start = slot.getStartMinute();
+                end = slot.getEndMinute();
+            } else {
+                end = Math.max(end, slot.getEndMinute());
+            }
+            if (++head[1] < busy.size()) {
+                heads.add(head);
+            }
+        }
+        if (end != Long.MIN_VALUE) {
+            merged.add(new TimeSlot(start, end));
+        }
+        return merged;
+    }
+
+    private static boolean overlaps(List<TimeSlot> busy, TimeSlot slot) {
+        int low = 0;
+        int high = busy.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (busy.get(middle).getEndMinute() > slot.getStartMinute()) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low < busy.size() && busy.get(low).getStartMinute() < slot.getEndMinute();
+    }
+}
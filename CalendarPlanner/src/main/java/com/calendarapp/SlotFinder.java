@@ -0,0 +1,91 @@
+package com.calendarapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class SlotFinder {
+    private SlotFinder() {
+    }
+
+    public static List<TimeSlot> find(List<TimeSlot> busy, long earliestStart, long latestEnd, long duration,
+                                      RecurrenceRule rule, long horizon, int limit) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Duration must be positive.");
+        }
+        long[] busyStarts = new long[busy.size()];
+        long[] busyEnds = new long[busy.size()];
+        for (int i = 0; i < busyStarts.length; i++) {
+            busyStarts[i] = busy.get(i).getStartMinute();
+            busyEnds[i] = busy.get(i).getEndMinute();
+        }
+        List<TimeSlot> slots = new ArrayList<>();
+        long candidate = earliestStart;
+        while (slots.size() < limit && candidate + duration <= latestEnd) {
+            long shift = conflictShift(busyStarts, busyEnds, candidate, duration, rule, horizon);
+            if (shift == 0) {
+                slots.add(new TimeSlot(candidate, candidate + duration));
+                candidate += duration;
+            } else {
+                candidate += shift;
+            }
+        }
+        return slots;
+    }
+
+    static List<TimeSlot> merge(long[] starts, long[] ends, int count) {
+        Arrays.sort(starts, 0, count);
+        Arrays.sort(ends, 0, count);
+        List<TimeSlot> merged = new ArrayList<>();
+        int index = 0;
+        while (index < count) {
+            long start = starts[index];
+            long end = ends[index];
+            index++;
+            while (index < count && starts[index] <= end) {
+                end = Math.max(end, ends[index]);
+                index++;
+            }
+            merged.add(new TimeSlot(start, end));
+        }
+        return merged;
+    }
+
+    private static long conflictShift(long[] busyStarts, long[] busyEnds, long candidate, long duration,
+                                      RecurrenceRule rule, long horizon) {
+        if (rule == null) {
+            return overlapShift(busyStarts, busyEnds, candidate, duration);
+        }
+        OccurrenceCursor cursor = new OccurrenceCursor(
+                new Event(-1, "", "", candidate, candidate + duration), rule);
+        long horizonEnd = candidate + horizon;
+        boolean first = true;
+        while (cursor.hasCurrent() && (first || cursor.currentStartMinute() < horizonEnd)) {
+            long occurrenceStart = cursor.currentStartMinute();
+            long shift = overlapShift(busyStarts, busyEnds, occurrenceStart, duration);
+            if (shift > 0) {
+                return shift;
+            }
+            first = false;
+            cursor.advance();
+        }
+        return 0;
+    }
+
+    private static long overlapShift(long[] busyStarts, long[] busyEnds, long start, long duration) {
+        int low = 0;
+        int high = busyEnds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (busyEnds[middle] > start) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        if (low < busyStarts.length && busyStarts[low] < start + duration) {
+            return busyEnds[low] - start;
+        }
+        return 0;
+    }
+}
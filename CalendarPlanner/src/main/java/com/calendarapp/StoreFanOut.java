@@ -0,0 +1,81 @@
+package com.calendarapp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class StoreFanOut implements AutoCloseable {
+    private final ExecutorService executor;
+    private final String subject;
+
+    public StoreFanOut(int storeCount, String threadName, String subject) {
+        int threads = Math.max(1, Math.min(storeCount, Runtime.getRuntime().availableProcessors()));
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.subject = subject;
+    }
+
+    public void loadAll(List<EventStore> stores) throws IOException {
+        map(stores, store -> {
+            store.load();
+            return null;
+        });
+    }
+
+    public <T> List<T> map(List<EventStore> stores, StoreQuery<T> query) throws IOException {
+        List<Callable<T>> tasks = new ArrayList<>(stores.size());
+        for (EventStore store : stores) {
+            tasks.add(() -> query.apply(store));
+        }
+        return invokeAll(tasks);
+    }
+
+    public <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (tasks.size() == 1) {
+            try {
+                results.add(tasks.get(0).call());
+                return results;
+            } catch (IOException | RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new IOException("Unable to query " + subject + ".", ex);
+            }
+        }
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while querying " + subject + ".", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Unable to query " + subject + ".", cause);
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    public interface StoreQuery<T> {
+        T apply(EventStore store) throws IOException;
+    }
+}
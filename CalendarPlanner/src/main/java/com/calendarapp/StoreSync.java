@@ -0,0 +1,302 @@
+package com.calendarapp;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+
+public final class StoreSync {
+    private static final String SYNC_STATE_PREFIX = "sync-";
+
+    private StoreSync() {
+    }
+
+    public static SyncReport sync(Path firstDirectory, Path secondDirectory) throws IOException {
+        EventStore first = new EventStore(firstDirectory);
+        EventStore second = new EventStore(secondDirectory);
+        first.load();
+        second.load();
+        return sync(first, second);
+    }
+
+    public static SyncReport sync(EventStore first, EventStore second) throws IOException {
+        Path firstDirectory = first.getDataDirectory();
+        Path secondDirectory = second.getDataDirectory();
+        Path firstStateFile = syncStateFile(firstDirectory, secondDirectory);
+        Path secondStateFile = syncStateFile(secondDirectory, firstDirectory);
+        SyncHashes base = readSyncState(firstStateFile);
+        if (base.isEmpty()) {
+            base = readSyncState(secondStateFile);
+        }
+
+        SyncReport report = new SyncReport();
+        boolean firstLocksFirst = lockOrder(first, second) <= 0;
+        EventStore outer = firstLocksFirst ? first : second;
+        EventStore inner = firstLocksFirst ? second : first;
+        boolean baseChanged;
+        synchronized (outer) {
+            synchronized (inner) {
+                baseChanged = reconcile(first, second, base, report);
+            }
+        }
+
+        if (report.changedFirst()) {
+            first.save();
+        }
+        if (report.changedSecond()) {
+            second.save();
+        }
+        if (baseChanged || !Files.exists(firstStateFile)) {
+            writeSyncState(firstStateFile, base);
+        }
+        if (baseChanged || !Files.exists(secondStateFile)) {
+            writeSyncState(secondStateFile, base);
+        }
+        return report;
+    }
+
+    private static int lockOrder(EventStore first, EventStore second) {
+        int byPath = first.getDataDirectory().toAbsolutePath().normalize().toString()
+                .compareTo(second.getDataDirectory().toAbsolutePath().normalize().toString());
+        return byPath != 0
+                ? byPath
+                : Integer.compare(System.identityHashCode(first), System.identityHashCode(second));
+    }
+
+    private static boolean reconcile(EventStore first, EventStore second, SyncHashes base, SyncReport report) {
+        SyncHashes firstHashes = first.syncHashes();
+        SyncHashes secondHashes = second.syncHashes();
+        if (firstHashes.rootHash() == secondHashes.rootHash() && firstHashes.rootHash() == base.rootHash()
+                && firstHashes.size() == base.size()) {
+            return false;
+        }
+        IntIntMap months = new IntIntMap();
+        addAll(months, firstHashes.months());
+        addAll(months, secondHashes.months());
+        addAll(months, base.months());
+        IntIntMap candidates = new IntIntMap();
+        for (int month : months.keys()) {
+            long firstHash = firstHashes.monthHash(month);
+            long secondHash = secondHashes.monthHash(month);
+            if (firstHash == secondHash && firstHash == base.monthHash(month)) {
+                continue;
+            }
+            if (firstHash != secondHash) {
+                report.monthsCompared++;
+            }
+            addAll(candidates, firstHashes.idsIn(month));
+            addAll(candidates, secondHashes.idsIn(month));
+            addAll(candidates, base.idsIn(month));
+        }
+
+        int[] ids = candidates.keys();
+        Arrays.sort(ids);
+        int[] collisions = new int[ids.length];
+        int collisionCount = 0;
+        for (int id : ids) {
+            boolean inFirst = firstHashes.contains(id);
+            boolean inSecond = secondHashes.contains(id);
+            long firstHash = firstHashes.hashOf(id);
+            long secondHash = secondHashes.hashOf(id);
+            if (inFirst == inSecond && (!inFirst || firstHash == secondHash)) {
+                continue;
+            }
+            boolean firstUnchanged = inFirst && base.contains(id) && firstHash == base.hashOf(id);
+            boolean secondUnchanged = inSecond && base.contains(id) && secondHash == base.hashOf(id);
+            if (!inSecond) {
+                if (firstUnchanged) {
+                    first.deleteEvent(id);
+                    report.deletedFromFirst++;
+                } else {
+                    copyEvent(first, second, id, id);
+                    report.copiedToSecond++;
+                }
+            } else if (!inFirst) {
+                if (secondUnchanged) {
+                    second.deleteEvent(id);
+                    report.deletedFromSecond++;
+                } else {
+                    copyEvent(second, first, id, id);
+                    report.copiedToFirst++;
+                }
+            } else if (firstUnchanged) {
+                copyEvent(second, first, id, id);
+                report.copiedToFirst++;
+            } else if (secondUnchanged) {
+                copyEvent(first, second, id, id);
+                report.copiedToSecond++;
+            } else {
+                collisions[collisionCount++] = id;
+            }
+        }
+
+        int nextId = Math.max(first.getNextId(), second.getNextId());
+        for (int i = 0; i < collisionCount; i++) {
+            int id = collisions[i];
+            int newId = nextId++;
+            copyEvent(second, second, id, newId);
+            second.deleteEvent(id);
+            copyEvent(second, first, newId, newId);
+            copyEvent(first, second, id, id);
+            report.renumbered++;
+            refreshBase(base, firstHashes, newId);
+        }
+        for (int id : ids) {
+            refreshBase(base, firstHashes, id);
+        }
+        return true;
+    }
+
+    private static void addAll(IntIntMap target, int[] keys) {
+        for (int key : keys) {
+            target.put(key, 0);
+        }
+    }
+
+    private static void refreshBase(SyncHashes base, SyncHashes synced, int id) {
+        if (synced.contains(id)) {
+            base.put(id, synced.monthOf(id), synced.hashOf(id));
+        } else {
+            base.remove(id);
+        }
+    }
+
+    private static void copyEvent(EventStore source, EventStore target, int sourceId, int targetId) {
+        Event event = source.findEvent(sourceId).orElse(null);
+        if (event == null) {
+            return;
+        }
+        Event copy = new Event(targetId, event.getTitle(), event.getDescription(), event.getStart(), event.getEnd());
+        RecurrenceRule rule = source.findRecurrence(sourceId).orElse(null);
+        Integer reminder = source.findReminderMinutes(sourceId).orElse(null);
+        target.putEvent(copy, rule == null ? null : rule.withEventId(targetId), reminder);
+    }
+
+    private static Path syncStateFile(Path directory, Path peerDirectory) {
+        String peerKey = peerDirectory.toAbsolutePath().normalize().toString();
+        return directory.resolve(SYNC_STATE_PREFIX + Integer.toHexString(peerKey.hashCode()) + ".csv");
+    }
+
+    private static SyncHashes readSyncState(Path stateFile) throws IOException {
+        SyncHashes state = new SyncHashes();
+        if (!Files.exists(stateFile)) {
+            return state;
+        }
+        List<String> lines = Files.readAllLines(stateFile);
+        for (int i = 1; i < lines.size(); i++) {
+            List<String> fields = CsvUtil.parseLine(lines.get(i));
+            if (fields.size() < 2) {
+                continue;
+            }
+            int id = Integer.parseInt(fields.get(0));
+            if (fields.size() == 2) {
+                state.put(id, SyncHashes.UNKNOWN_MONTH, Long.parseUnsignedLong(fields.get(1), 16));
+            } else {
+                state.put(id, SyncHashes.parseMonth(fields.get(1)), Long.parseUnsignedLong(fields.get(2), 16));
+            }
+        }
+        return state;
+    }
+
+    private static void writeSyncState(Path stateFile, SyncHashes state) throws IOException {
+        Files.createDirectories(stateFile.getParent());
+        int[] ids = state.ids();
+        Arrays.sort(ids);
+        try (BufferedWriter writer = Files.newBufferedWriter(stateFile)) {
+            writer.write("eventId,month,contentHash");
+            writer.newLine();
+            for (int id : ids) {
+                writer.write(id + "," + SyncHashes.formatMonth(state.monthOf(id)) + ","
+                        + Long.toHexString(state.hashOf(id)));
+                writer.newLine();
+            }
+        }
+    }
+
+    static long contentHash(Event event, RecurrenceRule rule, Integer reminderMinutes) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(event.getTitle()).append('\u0000')
+                .append(event.getDescription()).append('\u0000')
+                .append(event.getStart()).append('\u0000')
+                .append(event.getEnd()).append('\u0000');
+        if (rule != null) {
+            builder.append(rule.toIntervalString()).append('/')
+                    .append(rule.getTimes()).append('/')
+                    .append(rule.getEndDate());
+            if (rule.hasExceptions()) {
+                builder.append('/').append(rule.getExceptionDates());
+            }
+        }
+        builder.append('\u0000').append(reminderMinutes);
+        return digest(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long digest(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | (hash[i] & 0xff);
+            }
+            return value;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex);
+        }
+    }
+
+    public static final class SyncReport {
+        private int monthsCompared;
+        private int copiedToFirst;
+        private int copiedToSecond;
+        private int deletedFromFirst;
+        private int deletedFromSecond;
+        private int renumbered;
+
+        public int getMonthsCompared() {
+            return monthsCompared;
+        }
+
+        public int getCopiedToFirst() {
+            return copiedToFirst;
+        }
+
+        public int getCopiedToSecond() {
+            return copiedToSecond;
+        }
+
+        public int getDeletedFromFirst() {
+            return deletedFromFirst;
+        }
+
+        public int getDeletedFromSecond() {
+            return deletedFromSecond;
+        }
+
+        public int getRenumbered() {
+            return renumbered;
+        }
+
+        private boolean changedFirst() {
+            return copiedToFirst > 0 || deletedFromFirst > 0 || renumbered > 0;
+        }
+
+        private boolean changedSecond() {
+            return copiedToSecond > 0 || deletedFromSecond > 0 || renumbered > 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Months compared: " + monthsCompared
+                    + ", copied to first: " + copiedToFirst
+                    + ", copied to second: " + copiedToSecond
+                    + ", deleted from first: " + deletedFromFirst
+                    + ", deleted from second: " + deletedFromSecond
+                    + ", renumbered collisions: " + renumbered;
+        }
+    }
+}
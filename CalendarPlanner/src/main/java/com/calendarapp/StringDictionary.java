@@ -0,0 +1,81 @@
+package com.calendarapp;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class StringDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] entries = new String[16];
+    private int[] references = new int[16];
+    private int[] freeCodes = new int[16];
+    private int freeCount;
+    private int nextCode;
+
+    public int intern(String value) {
+        String key = value == null ? "" : value;
+        Integer code = codes.get(key);
+        if (code != null) {
+            references[code]++;
+            return code;
+        }
+        int newCode;
+        if (freeCount > 0) {
+            newCode = freeCodes[--freeCount];
+        } else {
+            if (nextCode == entries.length) {
+                entries = Arrays.copyOf(entries, nextCode * 2);
+                references = Arrays.copyOf(references, nextCode * 2);
+            }
+            newCode = nextCode++;
+        }
+        entries[newCode] = key;
+        references[newCode] = 1;
+        codes.put(key, newCode);
+        return newCode;
+    }
+
+    public void release(int code) {
+        if (--references[code] > 0) {
+            return;
+        }
+        codes.remove(entries[code]);
+        entries[code] = null;
+        if (freeCount == freeCodes.length) {
+            freeCodes = Arrays.copyOf(freeCodes, freeCount * 2);
+        }
+        freeCodes[freeCount++] = code;
+    }
+
+    public int codeOf(String value) {
+        Integer code = codes.get(value == null ? "" : value);
+        return code == null ? -1 : code;
+    }
+
+    public String get(int code) {
+        return entries[code];
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int code = 0; code < nextCode; code++) {
+            if (entries[code] != null) {
+                consumer.accept(entries[code], references[code]);
+            }
+        }
+    }
+
+    public void clear() {
+        codes.clear();
+        Arrays.fill(entries, 0, nextCode, null);
+        nextCode = 0;
+        freeCount = 0;
+    }
+
+    public interface EntryConsumer {
+        void accept(String value, int references);
+    }
+}
@@ -0,0 +1,109 @@
+package com.calendarapp;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+public class SyncHashes {
+    public static final int UNKNOWN_MONTH = Integer.MIN_VALUE;
+
+    private final IntLongMap eventHashes = new IntLongMap();
+    private final IntIntMap eventMonths = new IntIntMap();
+    private final IntLongMap monthHashes = new IntLongMap();
+    private final IntObjectMap<IntIntMap> monthMembers = new IntObjectMap<>();
+    private long rootHash;
+
+    public int size() {
+        return eventHashes.size();
+    }
+
+    public boolean isEmpty() {
+        return eventHashes.isEmpty();
+    }
+
+    public boolean contains(int eventId) {
+        return eventHashes.containsKey(eventId);
+    }
+
+    public long hashOf(int eventId) {
+        return eventHashes.get(eventId, 0L);
+    }
+
+    public int monthOf(int eventId) {
+        return eventMonths.get(eventId, UNKNOWN_MONTH);
+    }
+
+    public long rootHash() {
+        return rootHash;
+    }
+
+    public long monthHash(int month) {
+        return monthHashes.get(month, 0L);
+    }
+
+    public int[] months() {
+        return monthHashes.keys();
+    }
+
+    public int[] ids() {
+        return eventHashes.keys();
+    }
+
+    public int[] idsIn(int month) {
+        IntIntMap members = monthMembers.get(month);
+        return members == null ? new int[0] : members.keys();
+    }
+
+    public void put(int eventId, int month, long hash) {
+        remove(eventId);
+        long leaf = leaf(eventId, hash);
+        eventHashes.put(eventId, hash);
+        eventMonths.put(eventId, month);
+        monthHashes.put(month, monthHashes.get(month, 0L) + leaf);
+        IntIntMap members = monthMembers.get(month);
+        if (members == null) {
+            members = new IntIntMap();
+            monthMembers.put(month, members);
+        }
+        members.put(eventId, 0);
+        rootHash += leaf;
+    }
+
+    public void remove(int eventId) {
+        if (!eventHashes.containsKey(eventId)) {
+            return;
+        }
+        long leaf = leaf(eventId, eventHashes.get(eventId, 0L));
+        int month = eventMonths.get(eventId, UNKNOWN_MONTH);
+        eventHashes.remove(eventId);
+        eventMonths.remove(eventId);
+        IntIntMap members = monthMembers.get(month);
+        members.remove(eventId);
+        if (members.isEmpty()) {
+            monthMembers.remove(month);
+            monthHashes.remove(month);
+        } else {
+            monthHashes.put(month, monthHashes.get(month, 0L) - leaf);
+        }
+        rootHash -= leaf;
+    }
+
+    public static int monthOf(LocalDateTime start) {
+        return start.getYear() * 12 + start.getMonthValue() - 1;
+    }
+
+    public static String formatMonth(int month) {
+        return YearMonth.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1).toString();
+    }
+
+    public static int parseMonth(String raw) {
+        YearMonth month = YearMonth.parse(raw);
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static long leaf(int eventId, long hash) {
+        long mixed = hash ^ (eventId * 0x9E3779B97F4A7C15L);
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return mixed ^ (mixed >>> 31);
+    }
+}
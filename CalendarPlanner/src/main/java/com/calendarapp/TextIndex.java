@@ -0,0 +1,195 @@
+package com.calendarapp;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+public class TextIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final IntObjectMap<IntSet> grams = new IntObjectMap<>();
+    private final IntObjectMap<IntSet> tokens = new IntObjectMap<>();
+
+    public void put(int id, String text) {
+        String normalized = normalize(text);
+        for (int gram : distinctGrams(normalized)) {
+            addPosting(grams, gram, id);
+        }
+        for (int token : distinctTokens(normalized, false)) {
+            addPosting(tokens, token, id);
+        }
+    }
+
+    public void remove(int id, String text) {
+        String normalized = normalize(text);
+        for (int gram : distinctGrams(normalized)) {
+            removePosting(grams, gram, id);
+        }
+        for (int token : distinctTokens(normalized, false)) {
+            removePosting(tokens, token, id);
+        }
+    }
+
+    public void clear() {
+        grams.clear();
+        tokens.clear();
+    }
+
+    public int[] candidates(String keyword) {
+        String normalized = normalize(keyword);
+        List<IntSet> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            IntSet ids = grams.get(gramAt(normalized, i));
+            if (ids == null) {
+                return new int[0];
+            }
+            lists.add(ids);
+        }
+        for (int token : distinctTokens(normalized, true)) {
+            IntSet ids = tokens.get(token);
+            if (ids == null) {
+                return new int[0];
+            }
+            lists.add(ids);
+        }
+        if (lists.isEmpty()) {
+            return null;
+        }
+        lists.sort(Comparator.comparingInt(IntSet::size));
+        int[] result = lists.get(0).toArray();
+        int count = 0;
+        for (int id : result) {
+            boolean everywhere = true;
+            for (int i = 1; i < lists.size() && everywhere; i++) {
+                everywhere = lists.get(i).contains(id);
+            }
+            if (everywhere) {
+                result[count++] = id;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    void writeTo(DataOutputStream output) throws IOException {
+        writePostings(output, grams);
+        writePostings(output, tokens);
+    }
+
+    void readFrom(DataInputStream input) throws IOException {
+        readPostings(input, grams);
+        readPostings(input, tokens);
+    }
+
+    static boolean contains(String text, String keyword) {
+        String normalized = normalize(keyword);
+        return normalized.isEmpty() || normalize(text).contains(normalized);
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase();
+    }
+
+    private static void addPosting(IntObjectMap<IntSet> postings, int key, int id) {
+        IntSet ids = postings.get(key);
+        if (ids == null) {
+            ids = new IntSet();
+            postings.put(key, ids);
+        }
+        ids.add(id);
+    }
+
+    private static void removePosting(IntObjectMap<IntSet> postings, int key, int id) {
+        IntSet ids = postings.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private static void writePostings(DataOutputStream output, IntObjectMap<IntSet> postings) throws IOException {
+        int[] keys = postings.keys();
+        output.writeInt(keys.length);
+        for (int key : keys) {
+            int[] ids = postings.get(key).toArray();
+            ByteBuffer buffer = ByteBuffer.allocate(ids.length * Integer.BYTES);
+            buffer.asIntBuffer().put(ids);
+            output.writeInt(key);
+            output.writeInt(ids.length);
+            output.write(buffer.array());
+        }
+    }
+
+    private static void readPostings(DataInputStream input, IntObjectMap<IntSet> postings) throws IOException {
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            int key = input.readInt();
+            int size = input.readInt();
+            if (size <= 0 || size > input.available() / Integer.BYTES) {
+                throw new IOException("Damaged posting list.");
+            }
+            byte[] bytes = new byte[size * Integer.BYTES];
+            input.readFully(bytes);
+            int[] ids = new int[size];
+            ByteBuffer.wrap(bytes).asIntBuffer().get(ids);
+            IntSet set = new IntSet(size);
+            for (int id : ids) {
+                set.add(id);
+            }
+            postings.put(key, set);
+        }
+    }
+
+    private static int[] distinctGrams(String text) {
+        int count = Math.max(0, text.length() - GRAM_LENGTH + 1);
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = gramAt(text, i);
+        }
+        return distinct(result, count);
+    }
+
+    private static int[] distinctTokens(String text, boolean interiorOnly) {
+        int[] result = new int[text.length() / 2 + 1];
+        int count = 0;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inToken = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inToken && start < 0) {
+                start = i;
+            } else if (!inToken && start >= 0) {
+                if (!interiorOnly || (start > 0 && i < text.length())) {
+                    result[count++] = tokenHash(text, start, i);
+                }
+                start = -1;
+            }
+        }
+        return distinct(result, count);
+    }
+
+    private static int[] distinct(int[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || values[distinct - 1] != values[i]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, distinct);
+    }
+
+    private static int tokenHash(String text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+
+    private static int gramAt(String text, int index) {
+        return (text.charAt(index) * 31 + text.charAt(index + 1)) * 65599 + text.charAt(index + 2);
+    }
+}
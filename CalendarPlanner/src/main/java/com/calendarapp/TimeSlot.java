@@ -0,0 +1,52 @@
+package com.calendarapp;
+
+import java.time.LocalDateTime;
+
+public final class TimeSlot {
+    private final long startMinute;
+    private final long endMinute;
+
+    public TimeSlot(long startMinute, long endMinute) {
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+    }
+
+    public long getStartMinute() {
+        return startMinute;
+    }
+
+    public long getEndMinute() {
+        return endMinute;
+    }
+
+    public LocalDateTime getStart() {
+        return EpochMinutes.toDateTime(startMinute);
+    }
+
+    public LocalDateTime getEnd() {
+        return EpochMinutes.toDateTime(endMinute);
+    }
+
+    public long getDurationMinutes() {
+        return endMinute - startMinute;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TimeSlot)) {
+            return false;
+        }
+        TimeSlot slot = (TimeSlot) other;
+        return startMinute == slot.startMinute && endMinute == slot.endMinute;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(startMinute) * 31 + Long.hashCode(endMinute);
+    }
+
+    @Override
+    public String toString() {
+        return getStart() + " - " + getEnd();
+    }
+}
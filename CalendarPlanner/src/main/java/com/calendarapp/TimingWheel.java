@@ -0,0 +1,198 @@
+package com.calendarapp;
+
+import java.util.function.Consumer;
+
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+    private static final int OVERFLOW = LEVELS * SLOTS;
+    private static final int READY = OVERFLOW + 1;
+
+    private final Timer<T>[] buckets;
+    private final long[] occupied = new long[LEVELS];
+    private long currentMinute;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long startMinute) {
+        this.buckets = (Timer<T>[]) new Timer[READY + 1];
+        this.currentMinute = startMinute;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getCurrentMinute() {
+        return currentMinute;
+    }
+
+    public Timer<T> schedule(long dueMinute, T value) {
+        Timer<T> timer = new Timer<>(dueMinute, value);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    public boolean cancel(Timer<T> timer) {
+        if (timer == null || timer.bucket < 0) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    public long nextWakeMinute() {
+        if (buckets[READY] != null) {
+            return currentMinute;
+        }
+        long wake = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            int currentSlot = (int) ((currentMinute >>> shift) & (SLOTS - 1));
+            long ahead = currentSlot == SLOTS - 1 ? 0 : occupied[level] & (-1L << (currentSlot + 1));
+            if (ahead != 0) {
+                long blockStart = (currentMinute >>> (shift + SLOT_BITS)) << (shift + SLOT_BITS);
+                wake = Math.min(wake, blockStart + ((long) Long.numberOfTrailingZeros(ahead) << shift));
+            }
+        }
+        if (buckets[OVERFLOW] != null) {
+            int topShift = LEVELS * SLOT_BITS;
+            wake = Math.min(wake, ((currentMinute >>> topShift) + 1) << topShift);
+        }
+        return wake;
+    }
+
+    public void advanceTo(long minute, Consumer<T> expired) {
+        drain(READY, expired);
+        while (true) {
+            long next = nextWakeMinute();
+            if (next > minute || next == Long.MAX_VALUE) {
+                break;
+            }
+            currentMinute = next;
+            if ((next & ((1L << (LEVELS * SLOT_BITS)) - 1)) == 0) {
+                replace(OVERFLOW);
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                int shift = level * SLOT_BITS;
+                if ((next & ((1L << shift) - 1)) == 0) {
+                    replace(level * SLOTS + (int) ((next >>> shift) & (SLOTS - 1)));
+                }
+            }
+            drain((int) (next & (SLOTS - 1)), expired);
+            drain(READY, expired);
+        }
+        currentMinute = Math.max(currentMinute, minute);
+    }
+
+    private void place(Timer<T> timer) {
+        if (timer.dueMinute <= currentMinute) {
+            link(timer, READY);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int blockShift = (level + 1) * SLOT_BITS;
+            if ((timer.dueMinute >>> blockShift) == (currentMinute >>> blockShift)) {
+                int slot = (int) ((timer.dueMinute >>> (level * SLOT_BITS)) & (SLOTS - 1));
+                link(timer, level * SLOTS + slot);
+                return;
+            }
+        }
+        link(timer, OVERFLOW);
+    }
+
+    private void replace(int bucket) {
+        Timer<T> timer = detachAll(bucket);
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.previous = null;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void drain(int bucket, Consumer<T> expired) {
+        Timer<T> timer = detachAll(bucket);
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.previous = null;
+            timer.next = null;
+            size--;
+            expired.accept(timer.value);
+            timer = next;
+        }
+    }
+
+    private Timer<T> detachAll(int bucket) {
+        Timer<T> head = buckets[bucket];
+        buckets[bucket] = null;
+        if (bucket < OVERFLOW) {
+            occupied[bucket / SLOTS] &= ~(1L << (bucket % SLOTS));
+        }
+        for (Timer<T> timer = head; timer != null; timer = timer.next) {
+            timer.bucket = -1;
+        }
+        return head;
+    }
+
+    private void link(Timer<T> timer, int bucket) {
+        Timer<T> head = buckets[bucket];
+        timer.next = head;
+        timer.previous = null;
+        if (head != null) {
+            head.previous = timer;
+        }
+        buckets[bucket] = timer;
+        timer.bucket = bucket;
+        if (bucket < OVERFLOW) {
+            occupied[bucket / SLOTS] |= 1L << (bucket % SLOTS);
+        }
+    }
+
+    private void unlink(Timer<T> timer) {
+        int bucket = timer.bucket;
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else {
+            buckets[bucket] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        timer.previous = null;
+        timer.next = null;
+        timer.bucket = -1;
+        if (bucket < OVERFLOW && buckets[bucket] == null) {
+            occupied[bucket / SLOTS] &= ~(1L << (bucket % SLOTS));
+        }
+    }
+
+    public static final class Timer<T> {
+        private final long dueMinute;
+        private final T value;
+        private Timer<T> previous;
+        private Timer<T> next;
+        private int bucket = -1;
+
+        private Timer(long dueMinute, T value) {
+            this.dueMinute = dueMinute;
+            this.value = value;
+        }
+
+        public long getDueMinute() {
+            return dueMinute;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public boolean isPending() {
+            return bucket >= 0;
+        }
+    }
+}
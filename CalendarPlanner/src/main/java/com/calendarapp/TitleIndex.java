@@ -0,0 +1,121 @@
+package com.calendarapp;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+public class TitleIndex {
+    private static final char SEPARATOR = '\u0000';
+    private static final Comparator<Map.Entry<String, Integer>> RANK =
+            Comparator.<Map.Entry<String, Integer>>comparingInt(Map.Entry::getValue).reversed()
+                    .thenComparing(Map.Entry::getKey);
+
+    private final TreeMap<String, Integer> counts = new TreeMap<>();
+
+    public void add(String title) {
+        if (title == null || title.isBlank()) {
+            return;
+        }
+        counts.merge(keyOf(title), 1, Integer::sum);
+    }
+
+    public void remove(String title) {
+        if (title == null || title.isBlank()) {
+            return;
+        }
+        String key = keyOf(title);
+        Integer count = counts.get(key);
+        if (count == null) {
+            return;
+        }
+        if (count <= 1) {
+            counts.remove(key);
+        } else {
+            counts.put(key, count - 1);
+        }
+    }
+
+    public void clear() {
+        counts.clear();
+    }
+
+    public int distinctTitles() {
+        return counts.size();
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        String normalized = TextIndex.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        return rank(counts.subMap(normalized, true, normalized + Character.MAX_VALUE, false).entrySet(), limit);
+    }
+
+    public static List<String> suggest(StringDictionary titles, String prefix, int limit) {
+        String normalized = TextIndex.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<Map.Entry<String, Integer>> matches = new ArrayList<>();
+        titles.forEach((title, references) -> {
+            if (!title.isBlank() && TextIndex.normalize(title).startsWith(normalized)) {
+                matches.add(new AbstractMap.SimpleEntry<>(keyOf(title), references));
+            }
+        });
+        return rank(matches, limit);
+    }
+
+    void writeTo(DataOutputStream output) throws IOException {
+        output.writeInt(counts.size());
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            output.writeInt(key.length);
+            output.write(key);
+            output.writeInt(entry.getValue());
+        }
+    }
+
+    void readFrom(DataInputStream input) throws IOException {
+        int size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            int length = input.readInt();
+            if (length < 0 || length > input.available()) {
+                throw new IOException("Damaged title entry.");
+            }
+            byte[] key = new byte[length];
+            input.readFully(key);
+            counts.put(new String(key, StandardCharsets.UTF_8), input.readInt());
+        }
+    }
+
+    private static List<String> rank(Iterable<Map.Entry<String, Integer>> entries, int limit) {
+        List<String> result = new ArrayList<>();
+        PriorityQueue<Map.Entry<String, Integer>> best = new PriorityQueue<>(RANK.reversed());
+        for (Map.Entry<String, Integer> entry : entries) {
+            if (best.size() < limit) {
+                best.add(entry);
+            } else if (RANK.compare(entry, best.peek()) < 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(best);
+        ranked.sort(RANK);
+        for (Map.Entry<String, Integer> entry : ranked) {
+            result.add(entry.getKey().substring(entry.getKey().indexOf(SEPARATOR) + 1));
+        }
+        return result;
+    }
+
+    private static String keyOf(String title) {
+        return TextIndex.normalize(title) + SEPARATOR + title;
+    }
+}
@@ -0,0 +1,141 @@
+package com.calendarapp;
+
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class StoreBenchmark {
+    private static final int DEFAULT_SIZE = 1_000_000;
+    private static final int LOOKUP_ROUNDS = 20;
+
+    private StoreBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        System.out.println("Entries: " + size);
+        benchmarkReminderMaps(size);
+        benchmarkEventMaps(size);
+        benchmarkStore(size);
+    }
+
+    private static void benchmarkReminderMaps(int size) {
+        long before = usedMemory();
+        Map<Integer, Integer> boxed = new HashMap<>();
+        for (int id = 1; id <= size; id++) {
+            boxed.put(id, reminderFor(id));
+        }
+        long boxedBytes = usedMemory() - before;
+
+        before = usedMemory();
+        IntIntMap primitive = new IntIntMap();
+        for (int id = 1; id <= size; id++) {
+            primitive.put(id, reminderFor(id));
+        }
+        long primitiveBytes = usedMemory() - before;
+
+        long checksum = 0;
+        long boxedNanos = 0;
+        long primitiveNanos = 0;
+        for (int round = 0; round < LOOKUP_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int id = 1; id <= size; id++) {
+                checksum += boxed.get(id);
+            }
+            boxedNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int id = 1; id <= size; id++) {
+                checksum += primitive.get(id, 0);
+            }
+            primitiveNanos += System.nanoTime() - start;
+        }
+        System.out.printf("Reminders  HashMap<Integer, Integer>: %6.1f B/entry %6.1f ns/lookup%n",
+                boxedBytes / (double) size, boxedNanos / ((double) size * LOOKUP_ROUNDS));
+        System.out.printf("Reminders  IntIntMap:                 %6.1f B/entry %6.1f ns/lookup%n",
+                primitiveBytes / (double) size, primitiveNanos / ((double) size * LOOKUP_ROUNDS));
+        System.out.println("(checksum " + checksum + ")");
+    }
+
+    private static void benchmarkEventMaps(int size) {
+        Event[] events = new Event[size];
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < size; i++) {
+            events[i] = new Event(i + 1, "Event", "", start, start.plusHours(1));
+        }
+
+        long before = usedMemory();
+        Map<Integer, Event> boxed = new HashMap<>();
+        for (Event event : events) {
+            boxed.put(event.getId(), event);
+        }
+        long boxedBytes = usedMemory() - before;
+
+        before = usedMemory();
+        IntObjectMap<Event> primitive = new IntObjectMap<>();
+        for (Event event : events) {
+            primitive.put(event.getId(), event);
+        }
+        long primitiveBytes = usedMemory() - before;
+
+        long checksum = 0;
+        long boxedNanos = 0;
+        long primitiveNanos = 0;
+        for (int round = 0; round < LOOKUP_ROUNDS; round++) {
+            long begin = System.nanoTime();
+            for (int id = 1; id <= size; id++) {
+                checksum += boxed.get(id).getId();
+            }
+            boxedNanos += System.nanoTime() - begin;
+            begin = System.nanoTime();
+            for (int id = 1; id <= size; id++) {
+                checksum += primitive.get(id).getId();
+            }
+            primitiveNanos += System.nanoTime() - begin;
+        }
+        System.out.printf("Events     HashMap<Integer, Event>:   %6.1f B/entry %6.1f ns/lookup%n",
+                boxedBytes / (double) size, boxedNanos / ((double) size * LOOKUP_ROUNDS));
+        System.out.printf("Events     IntObjectMap<Event>:       %6.1f B/entry %6.1f ns/lookup%n",
+                primitiveBytes / (double) size, primitiveNanos / ((double) size * LOOKUP_ROUNDS));
+        System.out.println("(checksum " + checksum + ")");
+    }
+
+    private static void benchmarkStore(int size) {
+        long before = usedMemory();
+        EventStore store = new EventStore(Paths.get("benchmark-data"));
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime eventStart = start.plusMinutes(i * 30L);
+            Event event = store.createEvent("Event " + (i % 100), "", eventStart, eventStart.plusMinutes(30));
+            if (i % 10 == 0) {
+                store.setReminderMinutes(event.getId(), 15);
+            }
+        }
+        store.buildTextIndexes();
+        long storeBytes = usedMemory() - before;
+
+        long checksum = 0;
+        long begin = System.nanoTime();
+        for (int round = 0; round < LOOKUP_ROUNDS; round++) {
+            for (int id = 1; id <= size; id++) {
+                checksum += store.findEvent(id).get().getId();
+            }
+        }
+        long nanos = System.nanoTime() - begin;
+        System.out.printf("EventStore (all indexes):             %6.1f B/event %6.1f ns/findEvent%n",
+                storeBytes / (double) size, nanos / ((double) size * LOOKUP_ROUNDS));
+        System.out.println("(checksum " + checksum + ")");
+    }
+
+    private static int reminderFor(int id) {
+        return id % 1440 + 1000;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}